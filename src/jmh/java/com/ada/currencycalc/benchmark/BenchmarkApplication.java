@@ -0,0 +1,30 @@
+package com.ada.currencycalc.benchmark;
+
+import com.ada.currencycalc.CurrencyCalcApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application for a benchmark trial with its own in-memory database, without the
+ * scheduled NBP warm-up and with request logging silenced so it does not dominate the measurement.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName,
+                "--nbp.warmup.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.ada.currencycalc=WARN"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(CurrencyCalcApplication.class).run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,63 @@
+package com.ada.currencycalc.benchmark;
+
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.service.CurrencyService;
+import com.ada.currencycalc.service.ExchangeRateStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CurrencyService#convertCurrency} with both rates already in the in-memory snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConversionBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private CurrencyService currencyService;
+
+    private final BigDecimal amount = new BigDecimal("1234.56");
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("conversion-benchmark");
+        currencyService = context.getBean(CurrencyService.class);
+        LocalDate today = LocalDate.now(context.getBean(Clock.class));
+        ExchangeRateStore exchangeRateStore = context.getBean(ExchangeRateStore.class);
+        exchangeRateStore.putAll(List.of(
+                new ExchangeRate("USD", new BigDecimal("3.9536"), today),
+                new ExchangeRate("EUR", new BigDecimal("4.2836"), today)), today);
+        exchangeRateStore.markWarm(today);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BigDecimal convertCurrency() {
+        return currencyService.convertCurrency("USD", amount, "EUR");
+    }
+}
@@ -0,0 +1,94 @@
+package com.ada.currencycalc.benchmark;
+
+import com.ada.currencycalc.conversion.FixedPointConversion;
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot conversion through the precomputed cross-rate matrix against the per-call division of the
+ * scaled rates it replaced, over a few hundred currency pairs of an NBP table A sized snapshot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CrossRateBenchmark {
+
+    private static final int CURRENCIES = 32;
+
+    private static final int PAIRS = 256;
+
+    private ExchangeRateSnapshot snapshot;
+
+    private int[] fromOrdinals;
+
+    private int[] toOrdinals;
+
+    private BigDecimal[] amounts;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ExchangeRate> exchangeRates = new ArrayList<>();
+        for (int i = 0; i < CURRENCIES; i++) {
+            String code = "C" + (char) ('A' + i / 26) + (char) ('A' + i % 26);
+            exchangeRates.add(new ExchangeRate(code, BigDecimal.valueOf(1 + random.nextInt(60_000), 4), LocalDate.EPOCH));
+        }
+        snapshot = ExchangeRateSnapshot.of(LocalDate.EPOCH, exchangeRates);
+        fromOrdinals = new int[PAIRS];
+        toOrdinals = new int[PAIRS];
+        amounts = new BigDecimal[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            fromOrdinals[i] = random.nextInt(CURRENCIES);
+            toOrdinals[i] = random.nextInt(CURRENCIES);
+            amounts[i] = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal scaledRates() {
+        int i = nextPair();
+        BigDecimal result = FixedPointConversion.convertScaled(amounts[i],
+                snapshot.scaledRateAt(fromOrdinals[i]), snapshot.scaledRateAt(toOrdinals[i]));
+        return result != null ? result : FixedPointConversion.convertExact(amounts[i],
+                snapshot.rateAt(fromOrdinals[i]), snapshot.rateAt(toOrdinals[i]));
+    }
+
+    @Benchmark
+    public BigDecimal crossRateMatrix() {
+        int i = nextPair();
+        BigDecimal result = snapshot.getCrossRates().convert(amounts[i], fromOrdinals[i], toOrdinals[i]);
+        if (result == null) {
+            result = FixedPointConversion.convertScaled(amounts[i],
+                    snapshot.scaledRateAt(fromOrdinals[i]), snapshot.scaledRateAt(toOrdinals[i]));
+        }
+        return result != null ? result : FixedPointConversion.convertExact(amounts[i],
+                snapshot.rateAt(fromOrdinals[i]), snapshot.rateAt(toOrdinals[i]));
+    }
+
+    private int nextPair() {
+        next = (next + 1) & (PAIRS - 1);
+        return next;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ada.currencycalc.benchmark;
+
+import com.ada.currencycalc.model.ExchangeRateDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding of an NBP {@code exchangerates/rates/A/{code}/} response into {@link ExchangeRateDTO},
+ * as {@code RestTemplate} does for every single-currency fetch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExchangeRateDtoDeserializationBenchmark {
+
+    private static final byte[] RATE_RESPONSE = """
+            {"table":"A","currency":"dolar amerykański","code":"USD","rates":[{"no":"129/A/NBP/2024","effectiveDate":"2024-07-05","mid":3.9536}]}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectReader reader = new ObjectMapper().readerFor(ExchangeRateDTO.class);
+
+    @Benchmark
+    public ExchangeRateDTO deserialize() throws IOException {
+        return reader.readValue(RATE_RESPONSE);
+    }
+}
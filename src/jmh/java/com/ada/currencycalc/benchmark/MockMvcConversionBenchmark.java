@@ -0,0 +1,72 @@
+package com.ada.currencycalc.benchmark;
+
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.service.ExchangeRateStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The full Spring MVC request path of {@code GET /api/v1/currency-conversion} with a warm rate snapshot:
+ * parameter binding, conversion and JSON serialisation of the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MockMvcConversionBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("mock-mvc-benchmark");
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        LocalDate today = LocalDate.now(context.getBean(Clock.class));
+        ExchangeRateStore exchangeRateStore = context.getBean(ExchangeRateStore.class);
+        exchangeRateStore.putAll(List.of(
+                new ExchangeRate("USD", new BigDecimal("3.9536"), today),
+                new ExchangeRate("EUR", new BigDecimal("4.2836"), today)), today);
+        exchangeRateStore.markWarm(today);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String convertCurrency() throws Exception {
+        return mockMvc.perform(get("/api/v1/currency-conversion")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .queryParam("from", "USD")
+                        .queryParam("to", "EUR")
+                        .queryParam("amount", "1234.56"))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.ada.currencycalc.benchmark;
+
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.model.ExchangeRateDTO;
+import com.ada.currencycalc.model.ExchangeRateTableDTO;
+import com.ada.currencycalc.service.NbpResponseReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning NBP range and table responses of {@code rates} rates into {@link ExchangeRate}s, by binding
+ * into the DTOs as {@code RestTemplate} did and with {@link NbpResponseReader}. Run with {@code -prof gc}
+ * and compare {@code gc.alloc.rate.norm}, the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NbpResponseReaderBenchmark {
+
+    @Param({"93", "1000"})
+    private int rates;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ObjectReader seriesReader = objectMapper.readerFor(ExchangeRateDTO.class);
+
+    private final ObjectReader tableReader = objectMapper.readerFor(ExchangeRateTableDTO[].class);
+
+    private final NbpResponseReader responseReader = new NbpResponseReader(objectMapper.getFactory());
+
+    private final LocalDate today = LocalDate.parse("2024-07-05");
+
+    private byte[] seriesResponse;
+
+    private byte[] tableResponse;
+
+    @Setup
+    public void setUp() {
+        StringBuilder series = new StringBuilder("{\"table\":\"A\",\"currency\":\"euro\",\"code\":\"EUR\",\"rates\":[");
+        StringBuilder table = new StringBuilder("[{\"table\":\"A\",\"no\":\"129/A/NBP/2024\",\"effectiveDate\":\"2024-07-05\",\"rates\":[");
+        LocalDate date = LocalDate.parse("2020-01-01");
+        for (int i = 0; i < rates; i++) {
+            String separator = i == 0 ? "" : ",";
+            series.append(separator).append("{\"no\":\"").append(i).append("/A/NBP/2024\",\"effectiveDate\":\"")
+                    .append(date.plusDays(i)).append("\",\"mid\":4.").append(1000 + i % 9000).append('}');
+            table.append(separator).append("{\"currency\":\"waluta ").append(i).append("\",\"code\":\"")
+                    .append(code(i)).append("\",\"mid\":").append(i % 100).append('.').append(1000 + i % 9000).append('}');
+        }
+        seriesResponse = series.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        tableResponse = table.append("]}]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<ExchangeRate> bindSeries() throws IOException {
+        ExchangeRateDTO dto = seriesReader.readValue(seriesResponse);
+        return dto.getRates().stream()
+                .map(rate -> new ExchangeRate("EUR", rate.getMid(), LocalDate.parse(rate.getEffectiveDate())))
+                .toList();
+    }
+
+    @Benchmark
+    public List<ExchangeRate> streamSeries() throws IOException {
+        List<ExchangeRate> exchangeRates = new ArrayList<>();
+        responseReader.readSeries(new ByteArrayInputStream(seriesResponse), "EUR",
+                (code, effectiveDate, mid) -> exchangeRates.add(new ExchangeRate(code, mid, effectiveDate)));
+        return exchangeRates;
+    }
+
+    @Benchmark
+    public List<ExchangeRate> bindTable() throws IOException {
+        ExchangeRateTableDTO[] tables = tableReader.readValue(tableResponse);
+        return tables[0].getRates().stream()
+                .map(rate -> new ExchangeRate(rate.getCode(), rate.getMid(), today))
+                .toList();
+    }
+
+    @Benchmark
+    public List<ExchangeRate> streamTable() throws IOException {
+        List<ExchangeRate> exchangeRates = new ArrayList<>();
+        responseReader.readTables(new ByteArrayInputStream(tableResponse),
+                (code, effectiveDate, mid) -> exchangeRates.add(new ExchangeRate(code, mid, today)));
+        return exchangeRates;
+    }
+
+    private static String code(int i) {
+        return new String(new char[]{(char) ('A' + i % 26), (char) ('A' + i / 26 % 26), (char) ('A' + i / 676 % 26)});
+    }
+}
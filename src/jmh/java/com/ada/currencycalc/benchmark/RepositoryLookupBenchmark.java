@@ -0,0 +1,88 @@
+package com.ada.currencycalc.benchmark;
+
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ExchangeRateRepository#findByCurrencyCodeAndEffectiveDate} against tables of growing size;
+ * with the (currency_code, effective_date) index the throughput should stay flat across sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RepositoryLookupBenchmark {
+
+    private static final int CURRENCIES = 1_000;
+
+    private static final int INSERT_BATCH = 10_000;
+
+    private static final LocalDate FIRST_DATE = LocalDate.parse("2000-01-01");
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("repository-benchmark-" + rows);
+        exchangeRateRepository = context.getBean(ExchangeRateRepository.class);
+        List<ExchangeRate> batch = new ArrayList<>(INSERT_BATCH);
+        for (int row = 0; row < rows; row++) {
+            batch.add(new ExchangeRate(currencyCode(row % CURRENCIES), BigDecimal.valueOf(row % 10_000 + 1, 4),
+                    FIRST_DATE.plusDays(row / CURRENCIES)));
+            if (batch.size() == INSERT_BATCH) {
+                exchangeRateRepository.upsertAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            exchangeRateRepository.upsertAll(batch);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<ExchangeRate> findByCurrencyCodeAndEffectiveDate() {
+        int row = ThreadLocalRandom.current().nextInt(rows);
+        return exchangeRateRepository.findByCurrencyCodeAndEffectiveDate(currencyCode(row % CURRENCIES),
+                FIRST_DATE.plusDays(row / CURRENCIES));
+    }
+
+    private static String currencyCode(int index) {
+        return new String(new char[]{
+                (char) ('A' + index / 676 % 26),
+                (char) ('A' + index / 26 % 26),
+                (char) ('A' + index % 26)});
+    }
+}
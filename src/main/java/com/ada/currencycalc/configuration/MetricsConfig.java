@@ -0,0 +1,69 @@
+package com.ada.currencycalc.configuration;
+
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import com.ada.currencycalc.service.ExchangeRateStore;
+import com.ada.currencycalc.service.NbpCircuitBreaker;
+import com.ada.currencycalc.service.RateUpdateBroadcaster;
+import com.ada.currencycalc.service.RateWriteBehindQueue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Seconds since the start of the effective date of the rates held in memory; a value above a day
+     * means today's table has not been loaded yet. Reports NaN until any rate has been loaded.
+     */
+    @Bean
+    public MeterBinder exchangeRateAgeMetrics(ExchangeRateStore exchangeRateStore, Clock clock) {
+        return registry -> Gauge.builder("currency.rates.age", exchangeRateStore, store -> rateAgeSeconds(store.getSnapshot(), clock))
+                .description("Age of the exchange rates held in memory")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder rateWriteBehindMetrics(RateWriteBehindQueue rateWriteBehindQueue) {
+        return registry -> Gauge.builder("currency.rates.write-behind.pending", rateWriteBehindQueue, RateWriteBehindQueue::size)
+                .description("Fetched exchange rates waiting to be saved")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder rateStreamMetrics(RateUpdateBroadcaster rateUpdateBroadcaster) {
+        return registry -> Gauge.builder("currency.rates.stream.subscribers", rateUpdateBroadcaster, RateUpdateBroadcaster::getSubscriberCount)
+                .description("Clients subscribed to the rate stream")
+                .register(registry);
+    }
+
+    /**
+     * 0 while the NBP circuit breaker is closed, 1 while half-open and 2 while open.
+     */
+    @Bean
+    public MeterBinder nbpCircuitBreakerMetrics(NbpCircuitBreaker nbpCircuitBreaker) {
+        return registry -> Gauge.builder("currency.nbp.circuit-breaker.state", nbpCircuitBreaker, breaker -> breakerState(breaker.getState()))
+                .description("State of the NBP circuit breaker")
+                .register(registry);
+    }
+
+    private static double breakerState(NbpCircuitBreaker.State state) {
+        return switch (state) {
+            case CLOSED -> 0;
+            case HALF_OPEN -> 1;
+            case OPEN -> 2;
+        };
+    }
+
+    private static double rateAgeSeconds(ExchangeRateSnapshot snapshot, Clock clock) {
+        if (snapshot.size() == 0) {
+            return Double.NaN;
+        }
+        return Duration.between(snapshot.getEffectiveDate().atStartOfDay(clock.getZone()).toInstant(), clock.instant()).toSeconds();
+    }
+}
@@ -1,16 +1,69 @@
 package com.ada.currencycalc.configuration;
 
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
 import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 @RequiredArgsConstructor
 public class WebConfig {
 
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager nbpConnectionManager(
+            @Value("${nbp.http.max-connections:20}") int maxConnections,
+            @Value("${nbp.http.max-connections-per-route:10}") int maxConnectionsPerRoute,
+            @Value("${nbp.http.connect-timeout:PT2S}") Duration connectTimeout,
+            @Value("${nbp.http.read-timeout:PT5S}") Duration readTimeout) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient nbpHttpClient(
+            PoolingHttpClientConnectionManager nbpConnectionManager,
+            @Value("${nbp.http.connection-request-timeout:PT1S}") Duration connectionRequestTimeout,
+            @Value("${nbp.http.read-timeout:PT5S}") Duration readTimeout,
+            @Value("${nbp.http.keep-alive:PT30S}") Duration keepAlive,
+            @Value("${nbp.http.idle-eviction:PT1M}") Duration idleEviction) {
+        return HttpClients.custom()
+                .setConnectionManager(nbpConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient nbpHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(nbpHttpClient));
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public PoolingHttpClientConnectionManagerMetricsBinder nbpConnectionPoolMetrics(PoolingHttpClientConnectionManager nbpConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(nbpConnectionManager, "nbp");
     }
 }
@@ -1,13 +1,24 @@
 package com.ada.currencycalc.controller;
 
+import com.ada.currencycalc.model.BatchConversionResult;
+import com.ada.currencycalc.model.ConversionRequest;
 import com.ada.currencycalc.model.CurrencyConversionResult;
 import com.ada.currencycalc.service.CurrencyService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/currency-conversion")
@@ -15,14 +26,37 @@ public class CurrencyController {
 
     private final CurrencyService currencyService;
 
-    public CurrencyController(CurrencyService currencyService) {
+    private final RateCachePolicy rateCachePolicy;
+
+    public CurrencyController(CurrencyService currencyService, RateCachePolicy rateCachePolicy) {
         this.currencyService = currencyService;
+        this.rateCachePolicy = rateCachePolicy;
     }
 
+    /**
+     * A conversion is fixed for the whole effective date of its rates, so a matching {@code If-None-Match}
+     * is answered with 304 without converting. The request is validated first, so an invalid one is rejected
+     * with 400 whatever its preconditions.
+     */
     @GetMapping
-    public CurrencyConversionResult convertCurrency(@RequestParam String from, @RequestParam BigDecimal amount, @RequestParam String to) {
-        BigDecimal result = currencyService.convertCurrency(from, amount, to);
-        return new CurrencyConversionResult(from, to, amount, result);
+    public ResponseEntity<CurrencyConversionResult> convertCurrency(@RequestParam String from, @RequestParam BigDecimal amount, @RequestParam String to,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        currencyService.validate(from, amount, to, date);
+        Optional<LocalDate> cacheableDate = rateCachePolicy.findCacheableDate(date);
+        if (cacheableDate.isPresent() && rateCachePolicy.matches(ifNoneMatch, cacheableDate.get())) {
+            return rateCachePolicy.notModified(cacheableDate.get());
+        }
+        CurrencyConversionResult result = currencyService.convert(from, amount, to, date);
+        if (cacheableDate.isEmpty() || result.isStale() || !result.getDate().equals(cacheableDate.get())) {
+            return rateCachePolicy.uncached(result);
+        }
+        return rateCachePolicy.cached(result.getDate(), result);
+    }
+
+    @PostMapping("/batch")
+    public List<BatchConversionResult> convertCurrencies(@RequestBody List<ConversionRequest> requests) {
+        return currencyService.convertCurrencies(requests);
     }
 }
 
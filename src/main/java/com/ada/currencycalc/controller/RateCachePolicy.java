@@ -0,0 +1,113 @@
+package com.ada.currencycalc.controller;
+
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import com.ada.currencycalc.service.ExchangeRateStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+/**
+ * HTTP caching for responses computed from the rates of a single effective date. The validators are
+ * derived from that date alone: today's rates are cacheable once the full tables are loaded and until
+ * the next scheduled warm-up, rates of past dates never change.
+ */
+@Component
+public class RateCachePolicy {
+
+    private final ExchangeRateStore exchangeRateStore;
+
+    private final Clock clock;
+
+    private final CronExpression warmupSchedule;
+
+    private final Duration historicalMaxAge;
+
+    public RateCachePolicy(ExchangeRateStore exchangeRateStore, Clock clock,
+                           @Value("${nbp.warmup.cron:0 5 0 * * *}") String warmupCron,
+                           @Value("${api.cache.historical-max-age:P1D}") Duration historicalMaxAge) {
+        this.exchangeRateStore = exchangeRateStore;
+        this.clock = clock;
+        this.warmupSchedule = CronExpression.parse(warmupCron);
+        this.historicalMaxAge = historicalMaxAge;
+    }
+
+    /**
+     * Returns the effective date a response for {@code requestedDate} can be cached under, or empty when it
+     * must not be cached: today's tables are not fully loaded yet or the date is in the future.
+     */
+    public Optional<LocalDate> findCacheableDate(LocalDate requestedDate) {
+        LocalDate today = LocalDate.now(clock);
+        if (requestedDate == null || requestedDate.equals(today)) {
+            return exchangeRateStore.isWarm(today) ? Optional.of(today) : Optional.empty();
+        }
+        return requestedDate.isBefore(today) ? Optional.of(requestedDate) : Optional.empty();
+    }
+
+    public boolean isCacheable(ExchangeRateSnapshot snapshot) {
+        return snapshot.isWarm() && snapshot.getEffectiveDate().equals(LocalDate.now(clock));
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header value matches the entity tag of {@code effectiveDate}.
+     */
+    public boolean matches(String ifNoneMatch, LocalDate effectiveDate) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String eTag = eTag(effectiveDate);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(eTag) || trimmed.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public <T> ResponseEntity<T> notModified(LocalDate effectiveDate) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag(effectiveDate))
+                .lastModified(lastModified(effectiveDate))
+                .cacheControl(cacheControl(effectiveDate))
+                .build();
+    }
+
+    public <T> ResponseEntity<T> cached(LocalDate effectiveDate, T body) {
+        return ResponseEntity.ok()
+                .eTag(eTag(effectiveDate))
+                .lastModified(lastModified(effectiveDate))
+                .cacheControl(cacheControl(effectiveDate))
+                .body(body);
+    }
+
+    public <T> ResponseEntity<T> uncached(T body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body);
+    }
+
+    String eTag(LocalDate effectiveDate) {
+        return "\"" + effectiveDate + "\"";
+    }
+
+    private ZonedDateTime lastModified(LocalDate effectiveDate) {
+        return effectiveDate.atStartOfDay(clock.getZone());
+    }
+
+    private CacheControl cacheControl(LocalDate effectiveDate) {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        if (effectiveDate.isBefore(now.toLocalDate())) {
+            return CacheControl.maxAge(historicalMaxAge).cachePublic();
+        }
+        ZonedDateTime nextWarmup = warmupSchedule.next(now);
+        Duration untilNextWarmup = nextWarmup != null ? Duration.between(now, nextWarmup) : Duration.ZERO;
+        return CacheControl.maxAge(untilNextWarmup).cachePublic();
+    }
+}
@@ -0,0 +1,68 @@
+package com.ada.currencycalc.controller;
+
+import com.ada.currencycalc.model.BackfillResult;
+import com.ada.currencycalc.model.PurgeResult;
+import com.ada.currencycalc.service.CleanupService;
+import com.ada.currencycalc.service.RateHistoryService;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Administrative operations on the stored rate history, published as the {@code ratehistory} actuator
+ * endpoint instead of next to the public API. It is not part of {@code management.endpoints.web.exposure.include},
+ * so it is only reachable where an operator exposes it, over JMX or on a management port kept off the public network.
+ */
+@Component
+@Endpoint(id = "ratehistory")
+public class RateHistoryEndpoint {
+
+    private final CleanupService cleanupService;
+
+    private final RateHistoryService rateHistoryService;
+
+    public RateHistoryEndpoint(CleanupService cleanupService, RateHistoryService rateHistoryService) {
+        this.cleanupService = cleanupService;
+        this.rateHistoryService = rateHistoryService;
+    }
+
+    /**
+     * Loads every rate NBP published for {@code currencies} from {@code start} to {@code end} inclusive, within
+     * the limits described on {@link RateHistoryService#backfill}.
+     */
+    @WriteOperation
+    public BackfillResult backfill(List<String> currencies, String start, String end) {
+        return invoke(() -> rateHistoryService.backfill(currencies, parseDate(start), parseDate(end)));
+    }
+
+    /**
+     * Permanently removes every stored rate effective from {@code start} to {@code end} inclusive.
+     */
+    @DeleteOperation
+    public PurgeResult purge(String start, String end) {
+        return invoke(() -> cleanupService.purge(parseDate(start), parseDate(end)));
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid date: " + date);
+        }
+    }
+
+    private static <T> T invoke(Supplier<T> operation) {
+        try {
+            return operation.get();
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+    }
+}
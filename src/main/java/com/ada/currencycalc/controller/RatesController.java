@@ -0,0 +1,119 @@
+package com.ada.currencycalc.controller;
+
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import com.ada.currencycalc.model.RateListing;
+import com.ada.currencycalc.model.RateSnapshotStatus;
+import com.ada.currencycalc.service.ExchangeRateStore;
+import com.ada.currencycalc.service.RateExportService;
+import com.ada.currencycalc.service.RateUpdateBroadcaster;
+import com.ada.currencycalc.service.RateWarmupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/v1/rates")
+public class RatesController {
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private final ExchangeRateStore exchangeRateStore;
+
+    private final RateWarmupService rateWarmupService;
+
+    private final RateCachePolicy rateCachePolicy;
+
+    private final RateExportService rateExportService;
+
+    private final RateUpdateBroadcaster rateUpdateBroadcaster;
+
+    public RatesController(ExchangeRateStore exchangeRateStore, RateWarmupService rateWarmupService,
+                           RateCachePolicy rateCachePolicy, RateExportService rateExportService,
+                           RateUpdateBroadcaster rateUpdateBroadcaster) {
+        this.exchangeRateStore = exchangeRateStore;
+        this.rateWarmupService = rateWarmupService;
+        this.rateCachePolicy = rateCachePolicy;
+        this.rateExportService = rateExportService;
+        this.rateUpdateBroadcaster = rateUpdateBroadcaster;
+    }
+
+    /**
+     * Lists the rates held in memory. Once today's tables are fully loaded the listing may be cached
+     * until the next scheduled warm-up.
+     */
+    @GetMapping
+    public ResponseEntity<RateListing> getRates(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ExchangeRateSnapshot snapshot = exchangeRateStore.getSnapshot();
+        RateListing listing = RateListing.of(snapshot);
+        if (!rateCachePolicy.isCacheable(snapshot)) {
+            return rateCachePolicy.uncached(listing);
+        }
+        if (rateCachePolicy.matches(ifNoneMatch, snapshot.getEffectiveDate())) {
+            return rateCachePolicy.notModified(snapshot.getEffectiveDate());
+        }
+        return rateCachePolicy.cached(snapshot.getEffectiveDate(), listing);
+    }
+
+    /**
+     * Streams the rate listing as server-sent events named {@code rates}: today's listing on subscribe, once
+     * loaded, and every newly ingested listing after that, so clients can keep a local copy without polling.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRates() {
+        return rateUpdateBroadcaster.subscribe();
+    }
+
+    @GetMapping("/status")
+    public RateSnapshotStatus getStatus() {
+        ExchangeRateSnapshot snapshot = exchangeRateStore.getSnapshot();
+        return new RateSnapshotStatus(snapshot.getEffectiveDate(), rateWarmupService.isWarm(), snapshot.size());
+    }
+
+    /**
+     * Streams every rate of {@code date}, today by default, as a single JSON object keyed by currency code.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportJson(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        LocalDate effectiveDate = rateExportService.resolveEffectiveDate(date);
+        return export(MediaType.APPLICATION_JSON, acceptEncoding, out -> rateExportService.writeJson(effectiveDate, out));
+    }
+
+    /**
+     * Streams every rate of {@code date} in the fixed-width binary format described on {@link RateExportService}.
+     */
+    @GetMapping(value = "/export", produces = RateExportService.BINARY_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportBinary(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        LocalDate effectiveDate = rateExportService.resolveEffectiveDate(date);
+        return export(MediaType.parseMediaType(RateExportService.BINARY_MEDIA_TYPE), acceptEncoding,
+                out -> rateExportService.writeBinary(effectiveDate, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> export(MediaType mediaType, String acceptEncoding, StreamingResponseBody body) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(mediaType)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) {
+            return response.body(body);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+            body.writeTo(compressed);
+            compressed.finish();
+        });
+    }
+}
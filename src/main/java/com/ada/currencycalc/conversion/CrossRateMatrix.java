@@ -0,0 +1,139 @@
+package com.ada.currencycalc.conversion;
+
+import java.math.BigDecimal;
+
+/**
+ * Precomputed {@code fromRate / toRate} for every pair of currency ordinals, held in one flat row-major
+ * array, so converting an amount is a single multiply and a rounding.
+ * <p>
+ * Cross rates are doubles, so a product is only used when it is provably on the same side of the
+ * rounding boundary as the exact {@link FixedPointConversion#convertExact} result; otherwise
+ * {@link #convert} returns {@code null} and the caller falls back to the exact arithmetic.
+ */
+public final class CrossRateMatrix {
+
+    /**
+     * Bound on the relative error of {@code amount * crossRate * 10^k}: the cross rate carries three
+     * roundings (both rates and the quotient) and the product two more, each at most 2^-53.
+     * This is two orders of magnitude above that bound.
+     */
+    private static final double RELATIVE_ERROR = 1e-14;
+
+    /**
+     * Largest unscaled result for which the error bound stays well below the distance between two
+     * rounding boundaries.
+     */
+    private static final double MAX_UNSCALED_RESULT = 1e13;
+
+    private static final int MAX_EXACT_AMOUNT_PRECISION = 15;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final CrossRateMatrix EMPTY = new CrossRateMatrix(0, new double[0], new double[0]);
+
+    private final int size;
+    private final double[] rates;
+    private final double[] crossRates;
+
+    private CrossRateMatrix(int size, double[] rates, double[] crossRates) {
+        this.size = size;
+        this.rates = rates;
+        this.crossRates = crossRates;
+    }
+
+    public static CrossRateMatrix empty() {
+        return EMPTY;
+    }
+
+    public static CrossRateMatrix of(BigDecimal[] rateByOrdinal) {
+        return EMPTY.withRates(rateByOrdinal, new int[0]);
+    }
+
+    /**
+     * Returns a matrix for {@code rateByOrdinal}, which keeps the ordinals of this matrix and may append new
+     * ones. Only the rows and columns of the {@code changedOrdinals} and of appended ordinals are recomputed;
+     * every other cross rate is copied.
+     */
+    public CrossRateMatrix withRates(BigDecimal[] rateByOrdinal, int[] changedOrdinals) {
+        int newSize = rateByOrdinal.length;
+        boolean[] dirty = new boolean[newSize];
+        double[] newRates = new double[newSize];
+        System.arraycopy(rates, 0, newRates, 0, size);
+        for (int ordinal = size; ordinal < newSize; ordinal++) {
+            dirty[ordinal] = true;
+            newRates[ordinal] = toDouble(rateByOrdinal[ordinal]);
+        }
+        for (int ordinal : changedOrdinals) {
+            dirty[ordinal] = true;
+            newRates[ordinal] = toDouble(rateByOrdinal[ordinal]);
+        }
+        double[] newCrossRates = new double[newSize * newSize];
+        for (int from = 0; from < newSize; from++) {
+            int row = from * newSize;
+            if (!dirty[from]) {
+                System.arraycopy(crossRates, from * size, newCrossRates, row, size);
+            }
+            for (int to = 0; to < newSize; to++) {
+                if (dirty[from] || dirty[to]) {
+                    newCrossRates[row + to] = crossRate(newRates[from], newRates[to]);
+                }
+            }
+        }
+        return new CrossRateMatrix(newSize, newRates, newCrossRates);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double crossRate(int fromOrdinal, int toOrdinal) {
+        return crossRates[fromOrdinal * size + toOrdinal];
+    }
+
+    /**
+     * Returns {@code amount * rate(from) / rate(to)} rounded {@link java.math.RoundingMode#HALF_UP} to
+     * {@link FixedPointConversion#RESULT_SCALE} places, or {@code null} when the result cannot be
+     * guaranteed to equal the exact one.
+     */
+    public BigDecimal convert(BigDecimal amount, int fromOrdinal, int toOrdinal) {
+        double crossRate = crossRates[fromOrdinal * size + toOrdinal];
+        if (Double.isNaN(crossRate) || amount.precision() > MAX_EXACT_AMOUNT_PRECISION) {
+            return null;
+        }
+        int exponent = FixedPointConversion.RESULT_SCALE - amount.scale();
+        if (Math.abs(exponent) >= POWERS_OF_TEN.length) {
+            return null;
+        }
+        long unscaledAmount = amount.unscaledValue().longValue();
+        double product = Math.abs(unscaledAmount) * crossRate;
+        double unscaledResult = exponent >= 0 ? product * POWERS_OF_TEN[exponent] : product / POWERS_OF_TEN[-exponent];
+        if (!(unscaledResult < MAX_UNSCALED_RESULT)) {
+            return null;
+        }
+        double floor = Math.floor(unscaledResult);
+        if (Math.abs(unscaledResult - floor - 0.5) <= unscaledResult * RELATIVE_ERROR) {
+            return null;
+        }
+        long rounded = (long) floor + (unscaledResult - floor > 0.5 ? 1 : 0);
+        return BigDecimal.valueOf(unscaledAmount < 0 ? -rounded : rounded, FixedPointConversion.RESULT_SCALE);
+    }
+
+    /**
+     * Rates whose double is not a normal number would break the error bound, so they get no cross rates.
+     */
+    private static double toDouble(BigDecimal rate) {
+        double value = rate.doubleValue();
+        if (rate.signum() == 0) {
+            return 0;
+        }
+        return Double.isFinite(value) && Math.abs(value) >= Double.MIN_NORMAL ? value : Double.NaN;
+    }
+
+    private static double crossRate(double fromRate, double toRate) {
+        double crossRate = fromRate / toRate;
+        return toRate > 0 && fromRate >= 0 && Double.isFinite(crossRate) ? crossRate : Double.NaN;
+    }
+}
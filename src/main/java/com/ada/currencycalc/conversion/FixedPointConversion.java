@@ -0,0 +1,90 @@
+package com.ada.currencycalc.conversion;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversion arithmetic on rates held as longs scaled by {@link #RATE_SCALE}. The result is exactly
+ * {@code amount * fromRate / toRate} rounded {@link RoundingMode#HALF_UP} to {@link #RESULT_SCALE}
+ * places, identical to the {@link BigDecimal} formula; inputs whose intermediate products do not fit
+ * in a long fall back to that formula.
+ */
+public final class FixedPointConversion {
+
+    public static final int RATE_SCALE = 8;
+
+    public static final int RESULT_SCALE = 2;
+
+    /**
+     * Marks a rate that cannot be represented exactly at {@link #RATE_SCALE}.
+     */
+    public static final long NOT_SCALABLE = Long.MIN_VALUE;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private FixedPointConversion() {
+    }
+
+    public static long scaleRate(BigDecimal rate) {
+        try {
+            return rate.setScale(RATE_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException ex) {
+            return NOT_SCALABLE;
+        }
+    }
+
+    public static BigDecimal convert(BigDecimal amount, BigDecimal fromRate, BigDecimal toRate) {
+        BigDecimal result = convertScaled(amount, scaleRate(fromRate), scaleRate(toRate));
+        return result != null ? result : convertExact(amount, fromRate, toRate);
+    }
+
+    public static BigDecimal convertExact(BigDecimal amount, BigDecimal fromRate, BigDecimal toRate) {
+        return amount.multiply(fromRate).divide(toRate, RESULT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the converted amount, or {@code null} when a rate is not scalable, the target rate is zero
+     * or an intermediate value overflows a long; the caller then uses {@link #convertExact}.
+     */
+    public static BigDecimal convertScaled(BigDecimal amount, long scaledFromRate, long scaledToRate) {
+        if (scaledFromRate == NOT_SCALABLE || scaledToRate == NOT_SCALABLE || scaledToRate == 0
+                || amount.precision() > 18) {
+            return null;
+        }
+        long unscaledAmount = amount.unscaledValue().longValue();
+        // amount * 10^-scale * from / to, moved to RESULT_SCALE: numerator / denominator with the
+        // remaining power of ten on whichever side keeps it non-negative
+        int exponent = RESULT_SCALE - amount.scale();
+        if (Math.abs(exponent) >= POWERS_OF_TEN.length) {
+            return null;
+        }
+        try {
+            long numerator = Math.multiplyExact(unscaledAmount, scaledFromRate);
+            long denominator = scaledToRate;
+            if (exponent >= 0) {
+                numerator = Math.multiplyExact(numerator, POWERS_OF_TEN[exponent]);
+            } else {
+                denominator = Math.multiplyExact(denominator, POWERS_OF_TEN[-exponent]);
+            }
+            return BigDecimal.valueOf(divideHalfUp(numerator, denominator), RESULT_SCALE);
+        } catch (ArithmeticException ex) {
+            return null;
+        }
+    }
+
+    private static long divideHalfUp(long numerator, long denominator) {
+        if (numerator == Long.MIN_VALUE || denominator == Long.MIN_VALUE) {
+            throw new ArithmeticException("long overflow");
+        }
+        long quotient = numerator / denominator;
+        long remainder = Math.abs(numerator % denominator);
+        if (remainder >= Math.abs(denominator) - remainder) {
+            quotient += (numerator < 0) == (denominator < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
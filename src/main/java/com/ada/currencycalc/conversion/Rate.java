@@ -0,0 +1,76 @@
+package com.ada.currencycalc.conversion;
+
+import java.math.BigDecimal;
+
+/**
+ * An exchange rate as an unscaled long and an explicit decimal scale. Trailing zeros are dropped on
+ * construction, so {@code 4.2830} published by NBP and {@code 4.28300000} read back from the database are
+ * the same rate with the same scale, and every path through the service sees identical values.
+ */
+public final class Rate implements Comparable<Rate> {
+
+    /**
+     * The most decimal places a rate can have, equal to the scale of the {@code rate} column.
+     */
+    public static final int MAX_SCALE = FixedPointConversion.RATE_SCALE;
+
+    private final long unscaledValue;
+
+    private final int scale;
+
+    private Rate(long unscaledValue, int scale) {
+        this.unscaledValue = unscaledValue;
+        this.scale = scale;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the rate has more than {@link #MAX_SCALE} significant decimal
+     *                                  places or its unscaled value does not fit in a long
+     */
+    public static Rate of(BigDecimal rate) {
+        BigDecimal stripped = rate.stripTrailingZeros();
+        if (stripped.scale() < 0) {
+            stripped = stripped.setScale(0);
+        }
+        if (stripped.scale() > MAX_SCALE || stripped.unscaledValue().bitLength() > 63) {
+            throw new IllegalArgumentException("Rate " + rate.toPlainString() + " cannot be stored exactly");
+        }
+        return new Rate(stripped.unscaledValue().longValue(), stripped.scale());
+    }
+
+    public static Rate of(String rate) {
+        return of(new BigDecimal(rate));
+    }
+
+    public long unscaledValue() {
+        return unscaledValue;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaledValue, scale);
+    }
+
+    @Override
+    public int compareTo(Rate other) {
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Rate rate && unscaledValue == rate.unscaledValue && scale == rate.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(unscaledValue) * 31 + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
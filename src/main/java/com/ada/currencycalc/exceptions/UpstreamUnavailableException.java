@@ -0,0 +1,10 @@
+package com.ada.currencycalc.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class UpstreamUnavailableException extends RuntimeException {
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ada.currencycalc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class BackfillResult {
+    private LocalDate start;
+    private LocalDate end;
+    private Map<String, Integer> ratesByCurrency;
+}
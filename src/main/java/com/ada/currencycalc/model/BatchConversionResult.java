@@ -0,0 +1,27 @@
+package com.ada.currencycalc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class BatchConversionResult {
+    private String from;
+    private String to;
+    private BigDecimal amount;
+    private BigDecimal result;
+    private String error;
+    private boolean stale;
+
+    public static BatchConversionResult converted(String from, String to, BigDecimal amount, BigDecimal result, boolean stale) {
+        return new BatchConversionResult(from, to, amount, result, null, stale);
+    }
+
+    public static BatchConversionResult failed(String from, String to, BigDecimal amount, String error) {
+        return new BatchConversionResult(from, to, amount, null, error, false);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ada.currencycalc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversionRequest {
+    private String from;
+    private String to;
+    private BigDecimal amount;
+}
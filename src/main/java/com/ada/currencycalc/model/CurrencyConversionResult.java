@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Getter
 @Setter
@@ -14,4 +15,9 @@ public class CurrencyConversionResult {
     private String to;
     private BigDecimal amount;
     private BigDecimal result;
+    private LocalDate date;
+    /**
+     * Whether a last known rate was used because today's rate could not be fetched in time.
+     */
+    private boolean stale;
 }
@@ -1,9 +1,11 @@
 package com.ada.currencycalc.model;
 
+import com.ada.currencycalc.conversion.Rate;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -18,16 +20,21 @@ import java.time.LocalDate;
 public class ExchangeRate {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exchange_rate_seq")
+    @SequenceGenerator(name = "exchange_rate_seq", sequenceName = "exchange_rate_seq", allocationSize = 50)
     private Long id;
 
     private String currencyCode;
-    private BigDecimal rate;
+    private Rate rate;
     private LocalDate effectiveDate;
 
-    public ExchangeRate(String currencyCode, BigDecimal rate, LocalDate effectiveDate) {
+    public ExchangeRate(String currencyCode, Rate rate, LocalDate effectiveDate) {
         this.currencyCode = currencyCode;
         this.rate = rate;
         this.effectiveDate = effectiveDate;
     }
+
+    public ExchangeRate(String currencyCode, BigDecimal rate, LocalDate effectiveDate) {
+        this(currencyCode, Rate.of(rate), effectiveDate);
+    }
 }
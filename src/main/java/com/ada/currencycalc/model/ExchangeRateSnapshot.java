@@ -0,0 +1,155 @@
+package com.ada.currencycalc.model;
+
+import com.ada.currencycalc.conversion.CrossRateMatrix;
+import com.ada.currencycalc.conversion.FixedPointConversion;
+import com.ada.currencycalc.conversion.Rate;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Immutable view of all exchange rates known for a single effective date.
+ * A new instance is created for every change, so readers never need a lock.
+ */
+@Getter
+public final class ExchangeRateSnapshot {
+
+    private final LocalDate effectiveDate;
+    private final Map<String, Rate> rates;
+    /**
+     * Whether the full published rate tables have been loaded, as opposed to rates fetched one by one.
+     */
+    private final boolean warm;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Integer> ordinals;
+    @Getter(AccessLevel.NONE)
+    private final BigDecimal[] rateByOrdinal;
+    @Getter(AccessLevel.NONE)
+    private final long[] scaledRateByOrdinal;
+    private final CrossRateMatrix crossRates;
+
+    private ExchangeRateSnapshot(LocalDate effectiveDate, Map<String, Rate> rates, boolean warm, Map<String, Integer> ordinals,
+                                 BigDecimal[] rateByOrdinal, long[] scaledRateByOrdinal, CrossRateMatrix crossRates) {
+        this.effectiveDate = effectiveDate;
+        this.rates = rates;
+        this.warm = warm;
+        this.ordinals = ordinals;
+        this.rateByOrdinal = rateByOrdinal;
+        this.scaledRateByOrdinal = scaledRateByOrdinal;
+        this.crossRates = crossRates;
+    }
+
+    public static ExchangeRateSnapshot empty(LocalDate effectiveDate) {
+        return new ExchangeRateSnapshot(effectiveDate, Map.of(), false, Map.of(), new BigDecimal[0], new long[0], CrossRateMatrix.empty());
+    }
+
+    /**
+     * Builds a snapshot with ordinals in currency code order.
+     */
+    public static ExchangeRateSnapshot of(LocalDate effectiveDate, Collection<ExchangeRate> exchangeRates) {
+        Map<String, Rate> rates = new TreeMap<>();
+        for (ExchangeRate exchangeRate : exchangeRates) {
+            rates.put(exchangeRate.getCurrencyCode(), exchangeRate.getRate());
+        }
+        return empty(effectiveDate).withRates(rates);
+    }
+
+    /**
+     * Whether this snapshot holds the current rates on {@code today}: it is today's, or the last complete
+     * table published before today, which NBP's current rates still are until today's table is out.
+     */
+    public boolean isCurrentOn(LocalDate today) {
+        return effectiveDate.equals(today) || warm && effectiveDate.isBefore(today);
+    }
+
+    public Optional<BigDecimal> getRate(String currencyCode) {
+        return Optional.ofNullable(rates.get(currencyCode)).map(Rate::toBigDecimal);
+    }
+
+    /**
+     * Returns the dense index of the currency within this snapshot, or -1 when it has no rate.
+     */
+    public int ordinalOf(String currencyCode) {
+        Integer ordinal = ordinals.get(currencyCode);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public BigDecimal rateAt(int ordinal) {
+        return rateByOrdinal[ordinal];
+    }
+
+    /**
+     * Returns the rate scaled by {@link FixedPointConversion#RATE_SCALE}, or
+     * {@link FixedPointConversion#NOT_SCALABLE} when it cannot be represented exactly.
+     */
+    public long scaledRateAt(int ordinal) {
+        return scaledRateByOrdinal[ordinal];
+    }
+
+    public ExchangeRateSnapshot withRate(String currencyCode, Rate rate) {
+        return withRates(Map.of(currencyCode, rate));
+    }
+
+    public ExchangeRateSnapshot withRates(Collection<ExchangeRate> exchangeRates) {
+        Map<String, Rate> updates = new TreeMap<>();
+        for (ExchangeRate exchangeRate : exchangeRates) {
+            updates.put(exchangeRate.getCurrencyCode(), exchangeRate.getRate());
+        }
+        return withRates(updates);
+    }
+
+    public ExchangeRateSnapshot asWarm() {
+        return new ExchangeRateSnapshot(effectiveDate, rates, true, ordinals, rateByOrdinal, scaledRateByOrdinal, crossRates);
+    }
+
+    public int size() {
+        return rates.size();
+    }
+
+    /**
+     * Existing currencies keep their ordinals and new ones are appended in iteration order, so only the
+     * cross rates of changed or added currencies are recomputed. Rates are compared as {@link Rate}s, so
+     * the same rate published at another scale is not a change.
+     */
+    private ExchangeRateSnapshot withRates(Map<String, Rate> updates) {
+        Map<String, Integer> updatedOrdinals = new HashMap<>(ordinals);
+        Map<String, Rate> newRates = new HashMap<>(rates);
+        List<BigDecimal> updatedRateByOrdinal = new ArrayList<>(Arrays.asList(rateByOrdinal));
+        BitSet changedOrdinals = new BitSet(rateByOrdinal.length);
+        for (Map.Entry<String, Rate> update : updates.entrySet()) {
+            Rate previous = newRates.put(update.getKey(), update.getValue());
+            if (previous == null) {
+                updatedOrdinals.put(update.getKey(), updatedRateByOrdinal.size());
+                updatedRateByOrdinal.add(update.getValue().toBigDecimal());
+            } else if (!previous.equals(update.getValue())) {
+                int ordinal = updatedOrdinals.get(update.getKey());
+                updatedRateByOrdinal.set(ordinal, update.getValue().toBigDecimal());
+                changedOrdinals.set(ordinal);
+            }
+        }
+        if (updatedRateByOrdinal.size() == rateByOrdinal.length && changedOrdinals.isEmpty()) {
+            return this;
+        }
+        BigDecimal[] newRateByOrdinal = updatedRateByOrdinal.toArray(BigDecimal[]::new);
+        CrossRateMatrix newCrossRates = crossRates.withRates(newRateByOrdinal, changedOrdinals.stream().toArray());
+        long[] newScaledRateByOrdinal = Arrays.copyOf(scaledRateByOrdinal, newRateByOrdinal.length);
+        changedOrdinals.set(rateByOrdinal.length, newRateByOrdinal.length);
+        for (int ordinal = changedOrdinals.nextSetBit(0); ordinal >= 0; ordinal = changedOrdinals.nextSetBit(ordinal + 1)) {
+            newScaledRateByOrdinal[ordinal] = FixedPointConversion.scaleRate(newRateByOrdinal[ordinal]);
+        }
+        return new ExchangeRateSnapshot(effectiveDate, Map.copyOf(newRates), warm, Map.copyOf(updatedOrdinals),
+                newRateByOrdinal, newScaledRateByOrdinal, newCrossRates);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ada.currencycalc.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class ExchangeRateTableDTO {
+    private String table;
+    private String no;
+    private String effectiveDate;
+    private List<TableRateDTO> rates;
+}
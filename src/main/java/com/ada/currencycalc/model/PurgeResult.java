@@ -0,0 +1,18 @@
+package com.ada.currencycalc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class PurgeResult {
+    private LocalDate start;
+    private LocalDate end;
+    private int rowsRemoved;
+    private int chunks;
+    private long durationMillis;
+}
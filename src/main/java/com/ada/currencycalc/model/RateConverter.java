@@ -0,0 +1,21 @@
+package com.ada.currencycalc.model;
+
+import com.ada.currencycalc.conversion.Rate;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+@Converter(autoApply = true)
+public class RateConverter implements AttributeConverter<Rate, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Rate rate) {
+        return rate != null ? rate.toBigDecimal() : null;
+    }
+
+    @Override
+    public Rate convertToEntityAttribute(BigDecimal rate) {
+        return rate != null ? Rate.of(rate) : null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ada.currencycalc.model;
+
+import com.ada.currencycalc.conversion.Rate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+@Getter
+@AllArgsConstructor
+public class RateListing {
+    private LocalDate effectiveDate;
+    private boolean warm;
+    private SortedMap<String, BigDecimal> rates;
+
+    public static RateListing of(ExchangeRateSnapshot snapshot) {
+        SortedMap<String, BigDecimal> rates = new TreeMap<>();
+        snapshot.getRates().forEach((currencyCode, rate) -> rates.put(currencyCode, rate.toBigDecimal()));
+        return new RateListing(snapshot.getEffectiveDate(), snapshot.isWarm(), rates);
+    }
+}
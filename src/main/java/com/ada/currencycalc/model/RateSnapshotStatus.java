@@ -0,0 +1,14 @@
+package com.ada.currencycalc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class RateSnapshotStatus {
+    private LocalDate effectiveDate;
+    private boolean warm;
+    private int currencies;
+}
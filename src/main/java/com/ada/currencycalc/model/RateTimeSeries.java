@@ -0,0 +1,202 @@
+package com.ada.currencycalc.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Immutable history of one currency's rates, kept as parallel arrays sorted by effective date so that
+ * the rate in force on a given day is found with a binary search.
+ * <p>
+ * Alongside the rates the series keeps the ranges of days it covers, those for which it holds every rate NBP
+ * published. A day without a rate inside a covered range is a day NBP published none, so the previous rate
+ * is still in force; outside of them a missing day only means the history is incomplete.
+ */
+public final class RateTimeSeries {
+
+    private static final RateTimeSeries EMPTY = new RateTimeSeries(new int[0], new BigDecimal[0], new int[0]);
+
+    private final int[] epochDays;
+    private final BigDecimal[] rates;
+    /**
+     * Disjoint, non-adjacent covered ranges in ascending order, as pairs of first and last epoch day.
+     */
+    private final int[] coveredDays;
+
+    private RateTimeSeries(int[] epochDays, BigDecimal[] rates, int[] coveredDays) {
+        this.epochDays = epochDays;
+        this.rates = rates;
+        this.coveredDays = coveredDays;
+    }
+
+    public static RateTimeSeries empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the rate effective on or before {@code date}, ignoring rates published before {@code earliest}.
+     * The rate may be older than the one in force on {@code date} when the history has gaps.
+     */
+    public Optional<BigDecimal> rateOnOrBefore(LocalDate date, LocalDate earliest) {
+        int index = indexOnOrBefore((int) date.toEpochDay());
+        if (index < 0 || epochDays[index] < earliest.toEpochDay()) {
+            return Optional.empty();
+        }
+        return Optional.of(rates[index]);
+    }
+
+    /**
+     * Returns the rate in force on {@code date} only when the series knows it: a rate is effective that day,
+     * or every day since the last rate before it is covered.
+     */
+    public Optional<BigDecimal> knownRateOn(LocalDate date) {
+        int day = (int) date.toEpochDay();
+        int index = indexOnOrBefore(day);
+        if (index < 0) {
+            return Optional.empty();
+        }
+        if (epochDays[index] == day) {
+            return Optional.of(rates[index]);
+        }
+        int range = coveringRange(epochDays[index]);
+        return range >= 0 && coveredDays[range + 1] >= day ? Optional.of(rates[index]) : Optional.empty();
+    }
+
+    /**
+     * Merges rates of single days, each of which covers only its own day.
+     */
+    public RateTimeSeries withRates(Map<LocalDate, BigDecimal> additions) {
+        return merge(additions, new int[0]);
+    }
+
+    /**
+     * Merges every rate NBP published from {@code start} to {@code end} inclusive and covers that range.
+     */
+    public RateTimeSeries withRates(Map<LocalDate, BigDecimal> additions, LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) {
+            return withRates(additions);
+        }
+        return merge(additions, new int[]{(int) start.toEpochDay(), (int) end.toEpochDay()});
+    }
+
+    private RateTimeSeries merge(Map<LocalDate, BigDecimal> additions, int[] addedRange) {
+        TreeMap<Integer, BigDecimal> merged = new TreeMap<>();
+        for (int i = 0; i < epochDays.length; i++) {
+            merged.put(epochDays[i], rates[i]);
+        }
+        additions.forEach((date, rate) -> merged.put((int) date.toEpochDay(), rate));
+        int[] mergedDays = new int[merged.size()];
+        BigDecimal[] mergedRates = new BigDecimal[merged.size()];
+        int i = 0;
+        for (Map.Entry<Integer, BigDecimal> entry : merged.entrySet()) {
+            mergedDays[i] = entry.getKey();
+            mergedRates[i++] = entry.getValue();
+        }
+        TreeMap<Integer, Integer> ranges = new TreeMap<>();
+        for (int range = 0; range < coveredDays.length; range += 2) {
+            ranges.put(coveredDays[range], coveredDays[range + 1]);
+        }
+        for (LocalDate date : additions.keySet()) {
+            ranges.merge((int) date.toEpochDay(), (int) date.toEpochDay(), Math::max);
+        }
+        if (addedRange.length > 0) {
+            ranges.merge(addedRange[0], addedRange[1], Math::max);
+        }
+        return new RateTimeSeries(mergedDays, mergedRates, coalesce(ranges));
+    }
+
+    /**
+     * Drops every rate effective before {@code cutoff}, and the coverage of those days.
+     */
+    public RateTimeSeries withoutRatesBefore(LocalDate cutoff) {
+        int from = indexOnOrBefore((int) cutoff.toEpochDay() - 1) + 1;
+        if (from == 0 && (coveredDays.length == 0 || coveredDays[0] >= cutoff.toEpochDay())) {
+            return this;
+        }
+        return new RateTimeSeries(Arrays.copyOfRange(epochDays, from, epochDays.length), Arrays.copyOfRange(rates, from, rates.length),
+                uncover(Integer.MIN_VALUE, (int) cutoff.toEpochDay() - 1));
+    }
+
+    /**
+     * Drops every rate effective from {@code start} to {@code end} inclusive, and the coverage of those days.
+     */
+    public RateTimeSeries withoutRatesBetween(LocalDate start, LocalDate end) {
+        int from = indexOnOrBefore((int) start.toEpochDay() - 1) + 1;
+        int to = Math.max(indexOnOrBefore((int) end.toEpochDay()) + 1, from);
+        int[] retainedCoverage = uncover((int) start.toEpochDay(), (int) end.toEpochDay());
+        if (from == to && Arrays.equals(retainedCoverage, coveredDays)) {
+            return this;
+        }
+        int removed = to - from;
+        int[] retainedDays = new int[epochDays.length - removed];
+        BigDecimal[] retainedRates = new BigDecimal[rates.length - removed];
+        System.arraycopy(epochDays, 0, retainedDays, 0, from);
+        System.arraycopy(rates, 0, retainedRates, 0, from);
+        System.arraycopy(epochDays, to, retainedDays, from, epochDays.length - to);
+        System.arraycopy(rates, to, retainedRates, from, rates.length - to);
+        return new RateTimeSeries(retainedDays, retainedRates, retainedCoverage);
+    }
+
+    public int size() {
+        return epochDays.length;
+    }
+
+    /**
+     * Returns the index into {@link #coveredDays} of the range containing {@code epochDay}, or -1.
+     */
+    private int coveringRange(int epochDay) {
+        int low = 0;
+        int high = coveredDays.length / 2 - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (coveredDays[2 * middle] > epochDay) {
+                high = middle - 1;
+            } else if (coveredDays[2 * middle + 1] < epochDay) {
+                low = middle + 1;
+            } else {
+                return 2 * middle;
+            }
+        }
+        return -1;
+    }
+
+    private int[] uncover(int first, int last) {
+        TreeMap<Integer, Integer> ranges = new TreeMap<>();
+        for (int range = 0; range < coveredDays.length; range += 2) {
+            int start = coveredDays[range];
+            int end = coveredDays[range + 1];
+            if (start < first) {
+                ranges.put(start, Math.min(end, first - 1));
+            }
+            if (end > last) {
+                ranges.put(Math.max(start, last + 1), end);
+            }
+        }
+        return coalesce(ranges);
+    }
+
+    /**
+     * Flattens ranges keyed by first day into pairs, joining those that overlap or touch.
+     */
+    private static int[] coalesce(TreeMap<Integer, Integer> ranges) {
+        int[] pairs = new int[ranges.size() * 2];
+        int length = 0;
+        for (Map.Entry<Integer, Integer> range : ranges.entrySet()) {
+            if (length > 0 && (long) range.getKey() <= (long) pairs[length - 1] + 1) {
+                pairs[length - 1] = Math.max(pairs[length - 1], range.getValue());
+            } else {
+                pairs[length++] = range.getKey();
+                pairs[length++] = range.getValue();
+            }
+        }
+        return Arrays.copyOf(pairs, length);
+    }
+
+    private int indexOnOrBefore(int epochDay) {
+        int index = Arrays.binarySearch(epochDays, epochDay);
+        return index >= 0 ? index : -index - 2;
+    }
+}
@@ -0,0 +1,14 @@
+package com.ada.currencycalc.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+public class TableRateDTO {
+    private String currency;
+    private String code;
+    private BigDecimal mid;
+}
@@ -0,0 +1,27 @@
+package com.ada.currencycalc.repository;
+
+import com.ada.currencycalc.model.ExchangeRate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface ExchangeRateBatchRepository {
+
+    void upsert(ExchangeRate exchangeRate);
+
+    void upsertAll(List<ExchangeRate> exchangeRates);
+
+    /**
+     * Returns the currency code and rate of at most {@code limit} rows of {@code effectiveDate} whose currency
+     * code sorts after {@code afterCurrencyCode}, in currency code order, without loading entities.
+     */
+    Map<String, BigDecimal> findRatesAfter(LocalDate effectiveDate, String afterCurrencyCode, int limit);
+
+    /**
+     * Deletes at most {@code limit} rows effective from {@code start} to {@code end} inclusive in a single
+     * statement and returns the number of rows deleted.
+     */
+    int deleteChunk(LocalDate start, LocalDate end, int limit);
+}
@@ -0,0 +1,69 @@
+package com.ada.currencycalc.repository;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.model.ExchangeRate;
+import jakarta.transaction.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes rates with {@code MERGE ... KEY (currency_code, effective_date)}, relying on the unique
+ * constraint on those columns so repeated fetches of the same rate never create duplicate rows.
+ * New rows take their id from the {@code exchange_rate_seq} column default, so whole tables are
+ * written as a single JDBC batch without going through the entity manager.
+ */
+public class ExchangeRateBatchRepositoryImpl implements ExchangeRateBatchRepository {
+
+    private static final String UPSERT_SQL = "MERGE INTO exchange_rate (currency_code, rate, effective_date) "
+            + "KEY (currency_code, effective_date) VALUES (?, ?, ?)";
+
+    private static final String SELECT_RATES_AFTER_SQL = "SELECT currency_code, rate FROM exchange_rate "
+            + "WHERE effective_date = ? AND currency_code > ? ORDER BY currency_code FETCH FIRST ? ROWS ONLY";
+
+    private static final String DELETE_CHUNK_SQL = "DELETE FROM exchange_rate WHERE id IN (SELECT id FROM exchange_rate "
+            + "WHERE effective_date BETWEEN ? AND ? FETCH FIRST ? ROWS ONLY)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExchangeRateBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void upsert(ExchangeRate exchangeRate) {
+        jdbcTemplate.update(UPSERT_SQL, exchangeRate.getCurrencyCode(), exchangeRate.getRate().toBigDecimal(),
+                Date.valueOf(exchangeRate.getEffectiveDate()));
+    }
+
+    @Override
+    @Transactional
+    public void upsertAll(List<ExchangeRate> exchangeRates) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, exchangeRates, exchangeRates.size(), (ps, exchangeRate) -> {
+            ps.setString(1, exchangeRate.getCurrencyCode());
+            ps.setBigDecimal(2, exchangeRate.getRate().toBigDecimal());
+            ps.setDate(3, Date.valueOf(exchangeRate.getEffectiveDate()));
+        });
+    }
+
+    @Override
+    public Map<String, BigDecimal> findRatesAfter(LocalDate effectiveDate, String afterCurrencyCode, int limit) {
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_RATES_AFTER_SQL,
+                (RowCallbackHandler) resultSet -> rates.put(resultSet.getString(1), Rate.of(resultSet.getBigDecimal(2)).toBigDecimal()),
+                Date.valueOf(effectiveDate), afterCurrencyCode, limit);
+        return rates;
+    }
+
+    @Override
+    public int deleteChunk(LocalDate start, LocalDate end, int limit) {
+        return jdbcTemplate.update(DELETE_CHUNK_SQL, Date.valueOf(start), Date.valueOf(end), limit);
+    }
+}
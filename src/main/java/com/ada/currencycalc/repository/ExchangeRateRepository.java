@@ -1,14 +1,24 @@
 package com.ada.currencycalc.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import com.ada.currencycalc.model.ExchangeRate;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
-public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long>, ExchangeRateBatchRepository {
     Optional<ExchangeRate> findByCurrencyCodeAndEffectiveDate(String currencyCode, LocalDate effectiveDate);
 
-    void deleteByEffectiveDate(LocalDate effectiveDate);
+    List<ExchangeRate> findByEffectiveDate(LocalDate effectiveDate);
+
+    List<ExchangeRate> findByEffectiveDateGreaterThanEqual(LocalDate effectiveDate);
+
+    @Query("select distinct e.currencyCode from ExchangeRate e")
+    List<String> findDistinctCurrencyCodes();
+
+    @Query("select min(e.effectiveDate) from ExchangeRate e")
+    Optional<LocalDate> findEarliestEffectiveDate();
 
 }
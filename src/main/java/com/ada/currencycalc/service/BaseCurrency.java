@@ -0,0 +1,37 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.FixedPointConversion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * The currency all stored rates are quoted against, PLN for NBP. It has an implicit rate of 1, so it is
+ * never looked up, stored or fetched, and a conversion to or from it needs only the other currency's rate.
+ */
+@Component
+public class BaseCurrency {
+
+    public static final BigDecimal RATE = BigDecimal.ONE;
+
+    public static final long SCALED_RATE = FixedPointConversion.scaleRate(RATE);
+
+    private final String code;
+
+    public BaseCurrency(@Value("${rates.base-currency:PLN}") String code) {
+        if (CurrencyRegistry.keyOf(code) < 0) {
+            throw new IllegalArgumentException("Invalid base currency code: " + code);
+        }
+        this.code = code.toUpperCase(Locale.ROOT);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public boolean isBase(String currencyCode) {
+        return code.equals(currencyCode);
+    }
+}
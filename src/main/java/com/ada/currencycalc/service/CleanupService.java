@@ -1,37 +1,117 @@
 package com.ada.currencycalc.service;
 
+import com.ada.currencycalc.model.PurgeResult;
 import com.ada.currencycalc.repository.ExchangeRateRepository;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.Period;
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
 
+/**
+ * Removes exchange rates that have fallen out of the retention period, or any range of past dates on
+ * request, both from the database and from the in-memory rate history.
+ * <p>
+ * Rows are deleted in chunks of {@code chunkSize}, each its own short auto-committed statement, with a
+ * pause between chunks, so no long transaction holds locks on the table or the whole range in memory.
+ */
 @Slf4j
 @Service
 public class CleanupService {
 
     private final ExchangeRateRepository exchangeRateRepository;
 
+    private final RateHistoryStore rateHistoryStore;
+
     private final Clock clock;
 
-    public CleanupService(ExchangeRateRepository exchangeRateRepository, Clock clock) {
+    private final RateMetrics rateMetrics;
+
+    private final Period retention;
+
+    private final int chunkSize;
+
+    private final Duration chunkPause;
+
+    public CleanupService(ExchangeRateRepository exchangeRateRepository, RateHistoryStore rateHistoryStore, Clock clock,
+                          RateMetrics rateMetrics, @Value("${nbp.retention.period:P400D}") Period retention,
+                          @Value("${nbp.retention.chunk-size:1000}") int chunkSize,
+                          @Value("${nbp.retention.chunk-pause:PT0.05S}") Duration chunkPause) {
         this.exchangeRateRepository = exchangeRateRepository;
+        this.rateHistoryStore = rateHistoryStore;
         this.clock = clock;
+        this.rateMetrics = rateMetrics;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.chunkPause = chunkPause;
     }
 
-    @Scheduled(cron = "0 0 1 * * ?")
-    @Transactional
-    public void clearPreviousDayData() {
-        LocalDate yesterday = LocalDate.now(clock).minusDays(1);
-        log.info("Starting cleanup for date: {}", yesterday.format(DateTimeFormatter.ISO_DATE));
+    @Scheduled(cron = "${nbp.retention.cron:0 0 1 * * ?}")
+    public PurgeResult applyRetention() {
+        LocalDate cutoff = LocalDate.now(clock).minus(retention);
+        log.info("Starting cleanup of exchange rates before: {}", cutoff.format(DateTimeFormatter.ISO_DATE));
 
-        exchangeRateRepository.deleteByEffectiveDate(yesterday);
+        Optional<LocalDate> earliest = exchangeRateRepository.findEarliestEffectiveDate().filter(date -> date.isBefore(cutoff));
+        LocalDate end = cutoff.minusDays(1);
+        PurgeResult result = earliest.isPresent()
+                ? rateMetrics.timeCleanup(() -> deleteInChunks(earliest.get(), end))
+                : new PurgeResult(end, end, 0, 0, 0);
+        rateHistoryStore.evictBefore(cutoff);
 
-        log.info("Completed cleanup for date: {}", yesterday.format(DateTimeFormatter.ISO_DATE));
+        log.info("Completed cleanup of exchange rates before: {}, removed {} rows", cutoff.format(DateTimeFormatter.ISO_DATE), result.getRowsRemoved());
+        return result;
+    }
+
+    /**
+     * Removes every rate effective from {@code start} to {@code end} inclusive. Today's rates are served
+     * from memory and cannot be purged.
+     */
+    public PurgeResult purge(LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) {
+            log.error("Start date {} is after end date {}", start, end);
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        if (!end.isBefore(LocalDate.now(clock))) {
+            log.error("Cannot purge rates of today or later");
+            throw new IllegalArgumentException("Only rates before today can be purged");
+        }
+        PurgeResult result = rateMetrics.timeCleanup(() -> deleteInChunks(start, end));
+        rateHistoryStore.evictBetween(start, end);
+        return result;
+    }
+
+    private PurgeResult deleteInChunks(LocalDate start, LocalDate end) {
+        long startedAt = System.nanoTime();
+        int removed = 0;
+        int chunks = 0;
+        int deleted;
+        do {
+            deleted = exchangeRateRepository.deleteChunk(start, end, chunkSize);
+            removed += deleted;
+            chunks++;
+        } while (deleted == chunkSize && pauseBetweenChunks());
+        long durationMillis = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+        log.info("Removed {} exchange rates between {} and {} in {} chunks, {} ms", removed, start, end, chunks, durationMillis);
+        return new PurgeResult(start, end, removed, chunks, durationMillis);
+    }
 
+    private boolean pauseBetweenChunks() {
+        if (chunkPause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(chunkPause);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.warn("Exchange rate cleanup interrupted, stopping before the next chunk");
+            return false;
+        }
     }
 }
@@ -0,0 +1,169 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.exceptions.ExternalApiException;
+import com.ada.currencycalc.exceptions.UpstreamUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asks every other {@link RateProvider} for a rate in parallel, each bounded by its own deadline. In
+ * {@link Mode#FIRST} mode the first rate returned wins; in {@link Mode#QUORUM} mode the first rate that
+ * {@code quorum} sources agree on wins. Sources still running at that point are abandoned, and each call's
+ * latency and outcome is recorded per source. Sources run on the {@link RateLookupExecutor}, so a single
+ * source is bounded by its deadline just like several, and a source past its deadline or still running once
+ * the rate is settled is interrupted instead of holding its thread.
+ */
+@Slf4j
+@Primary
+@Component
+public class CompositeRateProvider implements RateProvider {
+
+    public enum Mode {
+        FIRST, QUORUM
+    }
+
+    private final List<RateProvider> sources;
+
+    private final RateMetrics rateMetrics;
+
+    private final RateLookupExecutor rateLookupExecutor;
+
+    private final int requiredVotes;
+
+    public CompositeRateProvider(List<RateProvider> sources, RateMetrics rateMetrics, RateLookupExecutor rateLookupExecutor,
+                                 @Value("${rates.providers.mode:FIRST}") Mode mode,
+                                 @Value("${rates.providers.quorum:2}") int quorum) {
+        if (sources.isEmpty()) {
+            throw new IllegalStateException("No rate providers configured");
+        }
+        if (quorum < 1) {
+            throw new IllegalArgumentException("Quorum must be at least 1");
+        }
+        this.sources = List.copyOf(sources);
+        this.rateMetrics = rateMetrics;
+        this.rateLookupExecutor = rateLookupExecutor;
+        this.requiredVotes = mode == Mode.QUORUM ? Math.min(quorum, sources.size()) : 1;
+        log.info("Fetching rates from {} in {} mode, {} of {} sources must agree",
+                this.sources.stream().map(RateProvider::getName).toList(), mode, requiredVotes, sources.size());
+    }
+
+    @Override
+    public String getName() {
+        return "composite";
+    }
+
+    @Override
+    public Duration getDeadline() {
+        return sources.stream().map(RateProvider::getDeadline).max(Duration::compareTo).orElseThrow();
+    }
+
+    @Override
+    public Rate fetchRate(String currencyCode) {
+        Ballot ballot = new Ballot(currencyCode);
+        List<CompletableFuture<Rate>> calls = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            int index = i;
+            RateProvider source = sources.get(i);
+            long start = System.nanoTime();
+            CompletableFuture<Rate> call = rateLookupExecutor.supplyAsync(() -> source.fetchRate(currencyCode), source.getDeadline());
+            calls.add(call);
+            call.whenComplete((rate, failure) -> {
+                RuntimeException cause = failure != null ? unwrap(source, failure) : null;
+                rateMetrics.recordRateProviderCall(source.getName(), outcome(cause), System.nanoTime() - start);
+                ballot.count(index, rate, cause);
+            });
+        }
+        ballot.result.whenComplete((rate, failure) -> calls.forEach(call -> call.cancel(true)));
+        return RateLookupExecutor.join(ballot.result);
+    }
+
+    private static RuntimeException unwrap(RateProvider source, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof TimeoutException) {
+            return new UpstreamUnavailableException("Rate provider " + source.getName() + " did not answer within " + source.getDeadline());
+        }
+        return cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+    }
+
+    private static String outcome(RuntimeException failure) {
+        if (failure == null) {
+            return "success";
+        }
+        if (failure instanceof ExternalApiException) {
+            return "not_found";
+        }
+        if (failure instanceof CancellationException) {
+            return "abandoned";
+        }
+        return failure instanceof UpstreamUnavailableException ? "unavailable" : "error";
+    }
+
+    /**
+     * Counts the answers of one fan-out. It fails as soon as the outstanding sources can no longer reach
+     * the required votes: with the first source's failure, in source order, unless the sources that did
+     * answer returned different rates, which is reported as a conflict.
+     */
+    private final class Ballot {
+
+        private final String currencyCode;
+
+        private final CompletableFuture<Rate> result = new CompletableFuture<>();
+
+        private final Map<Rate, Integer> votes = new HashMap<>();
+
+        private final RuntimeException[] failures = new RuntimeException[sources.size()];
+
+        private int answered;
+
+        private int mostVotes;
+
+        private Ballot(String currencyCode) {
+            this.currencyCode = currencyCode;
+        }
+
+        private synchronized void count(int index, Rate rate, RuntimeException failure) {
+            if (result.isDone()) {
+                return;
+            }
+            answered++;
+            if (failure != null) {
+                failures[index] = failure;
+            } else {
+                mostVotes = Math.max(mostVotes, votes.merge(rate, 1, Integer::sum));
+                if (mostVotes >= requiredVotes) {
+                    log.debug("Rate of {} settled by {}", currencyCode, sources.get(index).getName());
+                    result.complete(rate);
+                    return;
+                }
+            }
+            if (mostVotes + sources.size() - answered < requiredVotes) {
+                result.completeExceptionally(noAgreement());
+            }
+        }
+
+        private RuntimeException noAgreement() {
+            if (votes.size() < 2) {
+                for (RuntimeException failure : failures) {
+                    if (failure != null) {
+                        return failure;
+                    }
+                }
+            }
+            log.error("Rate sources returned {} for {}, {} must agree", votes.keySet(), currencyCode, requiredVotes);
+            return new ExternalApiException("Rate sources disagree on the rate of currency: " + currencyCode);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Canonical currency codes. A code of three ASCII letters in any case is looked up through a table indexed
+ * by its letters, so resolving a known code neither allocates nor hashes and always returns the same
+ * {@link String} instance.
+ * <p>
+ * The base currency is always registered. Codes stored in the database are registered on startup and NBP's
+ * published tables complete the registry. Once complete, codes NBP does not publish are rejected for current
+ * rates without asking NBP; until then, and for past dates, well-formed codes are upper-cased and passed on.
+ */
+@Slf4j
+@Component
+public class CurrencyRegistry {
+
+    private static final int UNKNOWN = -1;
+
+    private static final int CODE_LENGTH = 3;
+
+    private static final int LETTERS = 26;
+
+    private static final int KEYS = LETTERS * LETTERS * LETTERS;
+
+    private final ExchangeRateRepository exchangeRateRepository;
+
+    private final AtomicReference<Codes> codes = new AtomicReference<>(Codes.EMPTY);
+
+    public CurrencyRegistry(ExchangeRateRepository exchangeRateRepository, BaseCurrency baseCurrency) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        register(List.of(baseCurrency.getCode()));
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStoredCodes() {
+        List<String> storedCodes = exchangeRateRepository.findDistinctCurrencyCodes();
+        register(storedCodes);
+        log.info("Registered {} currency codes from database", storedCodes.size());
+    }
+
+    /**
+     * Returns the canonical upper-case code for {@code code}.
+     *
+     * @throws IllegalArgumentException when the code is blank, is not three letters, or is unknown to a
+     *                                  complete registry
+     */
+    public String resolve(String code) {
+        return resolve(code, true);
+    }
+
+    /**
+     * Returns the canonical upper-case code for {@code code} even when NBP no longer publishes it, for
+     * conversions at past dates.
+     *
+     * @throws IllegalArgumentException when the code is blank or is not three letters
+     */
+    public String resolveHistorical(String code) {
+        return resolve(code, false);
+    }
+
+    public boolean isComplete() {
+        return codes.get().complete;
+    }
+
+    public void register(Collection<String> currencyCodes) {
+        codes.updateAndGet(current -> current.with(currencyCodes, current.complete));
+    }
+
+    /**
+     * Registers the codes of NBP's published tables and marks the registry complete.
+     */
+    public void registerPublished(Collection<String> currencyCodes) {
+        codes.updateAndGet(current -> current.with(currencyCodes, true));
+    }
+
+    private String resolve(String code, boolean publishedOnly) {
+        if (code == null || code.isBlank()) {
+            throw new IllegalArgumentException("Currency code cannot be blank, empty or null");
+        }
+        int key = keyOf(code);
+        if (key < 0) {
+            throw new IllegalArgumentException("Invalid currency code: " + code);
+        }
+        Codes current = codes.get();
+        int id = current.idByKey[key];
+        if (id != UNKNOWN) {
+            return current.codeById[id];
+        }
+        if (publishedOnly && current.complete) {
+            throw new IllegalArgumentException("Unknown currency code: " + code);
+        }
+        return code.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Folds the three letters of {@code code} into an index below {@code 26^3}, or -1 when it is not three
+     * ASCII letters. Setting bit 5 maps upper to lower case and moves every other character out of range.
+     */
+    static int keyOf(CharSequence code) {
+        if (code == null || code.length() != CODE_LENGTH) {
+            return -1;
+        }
+        int key = 0;
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            int letter = (code.charAt(i) | 0x20) - 'a';
+            if (letter < 0 || letter >= LETTERS) {
+                return -1;
+            }
+            key = key * LETTERS + letter;
+        }
+        return key;
+    }
+
+    private static final class Codes {
+
+        private static final Codes EMPTY = new Codes(emptyKeys(), new String[0], false);
+
+        private final short[] idByKey;
+
+        private final String[] codeById;
+
+        private final boolean complete;
+
+        private Codes(short[] idByKey, String[] codeById, boolean complete) {
+            this.idByKey = idByKey;
+            this.codeById = codeById;
+            this.complete = complete;
+        }
+
+        private Codes with(Collection<String> currencyCodes, boolean complete) {
+            short[] newIdByKey = null;
+            String[] newCodeById = codeById;
+            for (String currencyCode : currencyCodes) {
+                int key = keyOf(currencyCode);
+                if (key < 0) {
+                    log.warn("Ignoring malformed currency code {}", currencyCode);
+                    continue;
+                }
+                if ((newIdByKey != null ? newIdByKey : idByKey)[key] != UNKNOWN) {
+                    continue;
+                }
+                if (newIdByKey == null) {
+                    newIdByKey = idByKey.clone();
+                }
+                newIdByKey[key] = (short) newCodeById.length;
+                newCodeById = Arrays.copyOf(newCodeById, newCodeById.length + 1);
+                newCodeById[newCodeById.length - 1] = currencyCode.toUpperCase(Locale.ROOT);
+            }
+            if (newIdByKey == null && complete == this.complete) {
+                return this;
+            }
+            return new Codes(newIdByKey != null ? newIdByKey : idByKey, newCodeById, complete);
+        }
+
+        private static short[] emptyKeys() {
+            short[] keys = new short[KEYS];
+            Arrays.fill(keys, (short) UNKNOWN);
+            return keys;
+        }
+    }
+}
@@ -1,23 +1,36 @@
 package com.ada.currencycalc.service;
 
+import com.ada.currencycalc.conversion.FixedPointConversion;
+import com.ada.currencycalc.conversion.Rate;
 import com.ada.currencycalc.exceptions.ExternalApiException;
+import com.ada.currencycalc.model.BatchConversionResult;
+import com.ada.currencycalc.model.ConversionRequest;
+import com.ada.currencycalc.model.CurrencyConversionResult;
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
 import com.ada.currencycalc.model.ExchangeRateDTO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
-import com.ada.currencycalc.repository.ExchangeRateRepository;
-import com.ada.currencycalc.model.ExchangeRate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Clock;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
@@ -25,47 +38,325 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 @Service
 public class CurrencyService {
 
-    private final ExchangeRateRepository exchangeRateRepository;
-    private final NbpApiConnector nbpApiConnector;
+    private static final ResolvedRate BASE_RATE = new ResolvedRate(BaseCurrency.RATE, false);
+
+    private final ExchangeRateStore exchangeRateStore;
+    private final RateProvider rateProvider;
+
+    private final RateWriteBehindQueue rateWriteBehindQueue;
 
     private final Clock clock;
 
-    public CurrencyService(ExchangeRateRepository exchangeRateRepository, Clock clock, NbpApiConnector nbpApiConnector) {
-        this.exchangeRateRepository = exchangeRateRepository;
+    private final RateLookupExecutor rateLookupExecutor;
+
+    private final RateMetrics rateMetrics;
+
+    private final RateHistoryService rateHistoryService;
+
+    private final TaskScheduler taskScheduler;
+
+    private final CurrencyRegistry currencyRegistry;
+
+    private final BaseCurrency baseCurrency;
+
+    private final SingleFlight<RateKey, BigDecimal> rateFetches = new SingleFlight<>();
+
+    private final Set<RateKey> backgroundRefreshes = ConcurrentHashMap.newKeySet();
+
+    public CurrencyService(ExchangeRateStore exchangeRateStore, Clock clock, RateProvider rateProvider,
+                           RateWriteBehindQueue rateWriteBehindQueue,
+                           RateLookupExecutor rateLookupExecutor, RateMetrics rateMetrics, RateHistoryService rateHistoryService,
+                           TaskScheduler taskScheduler, CurrencyRegistry currencyRegistry, BaseCurrency baseCurrency) {
+        this.exchangeRateStore = exchangeRateStore;
         this.clock = clock;
-        this.nbpApiConnector = nbpApiConnector;
+        this.rateProvider = rateProvider;
+        this.rateWriteBehindQueue = rateWriteBehindQueue;
+        this.rateLookupExecutor = rateLookupExecutor;
+        this.rateMetrics = rateMetrics;
+        this.rateHistoryService = rateHistoryService;
+        this.taskScheduler = taskScheduler;
+        this.currencyRegistry = currencyRegistry;
+        this.baseCurrency = baseCurrency;
     }
 
     public BigDecimal convertCurrency(String from, BigDecimal amount, String to) {
+        return convert(from, amount, to, null).getResult();
+    }
+
+    /**
+     * Converts with the rates effective on {@code date}; a {@code null} date or today uses the current rates.
+     * While today's rate of a currency cannot be fetched, its last known rate is used and the result is
+     * marked stale. Currency codes are matched case-insensitively and the result carries their canonical form.
+     * Converting a currency to itself needs no rate, and the base currency always has a rate of 1.
+     */
+    public CurrencyConversionResult convert(String from, BigDecimal amount, String to, LocalDate date) {
+        return rateMetrics.timeConversion(() -> {
+            validateConversion(from, amount, to);
+            String fromCode = resolveCode(from, date);
+            String toCode = resolveCode(to, date);
+            if (date == null) {
+                return convertToday(fromCode, amount, toCode);
+            }
+            return convertAt(fromCode, amount, toCode, date);
+        });
+    }
+
+    /**
+     * Rejects a conversion {@link #convert} would reject for its arguments alone, without looking up any rate.
+     *
+     * @throws IllegalArgumentException when a code is blank or malformed or, for current rates, not published,
+     *                                  the amount is missing or negative, or the date is in the future
+     */
+    public void validate(String from, BigDecimal amount, String to, LocalDate date) {
+        validateConversion(from, amount, to);
+        resolveCode(from, date);
+        resolveCode(to, date);
+        validateDate(date);
+    }
+
+    /**
+     * Resolves a code against NBP's current tables for today's rates only, since a currency NBP stopped
+     * publishing still has rates at past dates.
+     */
+    private String resolveCode(String code, LocalDate date) {
+        if (date == null || !date.isBefore(LocalDate.now(clock))) {
+            return currencyRegistry.resolve(code);
+        }
+        return currencyRegistry.resolveHistorical(code);
+    }
+
+    private CurrencyConversionResult convertToday(String from, BigDecimal amount, String to) {
         log.info("Converting currency from {} to {} with amount {}", from, to, amount);
+        LocalDate today = LocalDate.now(clock);
+        if (from.equals(to)) {
+            return identity(from, amount, today);
+        }
+        BigDecimal result = convertInMemory(from, amount, to);
+        boolean stale = false;
+        if (result == null) {
+            CompletableFuture<ResolvedRate> fromRate = resolveExchangeRate(from);
+            CompletableFuture<ResolvedRate> toRate = resolveExchangeRate(to);
+            ResolvedRate resolvedFromRate = RateLookupExecutor.join(fromRate);
+            ResolvedRate resolvedToRate = RateLookupExecutor.join(toRate);
+            result = FixedPointConversion.convert(amount, resolvedFromRate.rate(), resolvedToRate.rate());
+            stale = resolvedFromRate.stale() || resolvedToRate.stale();
+        }
+        log.info("Conversion result: {}{}", result, stale ? " (stale)" : "");
+        return new CurrencyConversionResult(from, to, amount, result, today, stale);
+    }
+
+    private CurrencyConversionResult convertAt(String from, BigDecimal amount, String to, LocalDate date) {
+        LocalDate today = LocalDate.now(clock);
+        if (date.equals(today)) {
+            return convertToday(from, amount, to);
+        }
+        log.info("Converting currency from {} to {} with amount {} at {}", from, to, amount, date);
+        validateDate(date);
+        if (from.equals(to)) {
+            return identity(from, amount, date);
+        }
+        BigDecimal result = FixedPointConversion.convert(amount,
+                rateHistoryService.getExchangeRate(from, date), rateHistoryService.getExchangeRate(to, date));
+        log.info("Conversion result: {}", result);
+        return new CurrencyConversionResult(from, to, amount, result, date, false);
+    }
+
+    private static CurrencyConversionResult identity(String currencyCode, BigDecimal amount, LocalDate date) {
+        return new CurrencyConversionResult(currencyCode, currencyCode, amount,
+                amount.setScale(FixedPointConversion.RESULT_SCALE, RoundingMode.HALF_UP), date, false);
+    }
+
+    /**
+     * Converts every request in order. Rates are resolved once per distinct currency and a failing
+     * item is reported in its own result instead of failing the whole batch.
+     */
+    public List<BatchConversionResult> convertCurrencies(List<ConversionRequest> requests) {
+        log.info("Converting batch of {} amounts", requests.size());
+        Map<String, ResolvedRate> rates = new HashMap<>();
+        Map<String, String> rateErrors = new HashMap<>();
+        List<BatchConversionResult> results = new ArrayList<>(requests.size());
+        for (ConversionRequest request : requests) {
+            results.add(convertBatchItem(request, rates, rateErrors));
+        }
+        log.info("Converted batch of {} amounts using {} distinct rates", requests.size(), rates.size());
+        return results;
+    }
+
+    private BatchConversionResult convertBatchItem(ConversionRequest request, Map<String, ResolvedRate> rates, Map<String, String> rateErrors) {
+        BigDecimal amount = request.getAmount();
+        String from;
+        String to;
+        try {
+            validateConversion(request.getFrom(), amount, request.getTo());
+            from = currencyRegistry.resolve(request.getFrom());
+            to = currencyRegistry.resolve(request.getTo());
+        } catch (IllegalArgumentException ex) {
+            return BatchConversionResult.failed(request.getFrom(), request.getTo(), amount, ex.getMessage());
+        }
+        if (from.equals(to)) {
+            return BatchConversionResult.converted(from, to, amount,
+                    amount.setScale(FixedPointConversion.RESULT_SCALE, RoundingMode.HALF_UP), false);
+        }
+        ResolvedRate fromRate = resolveBatchRate(from, rates, rateErrors);
+        ResolvedRate toRate = resolveBatchRate(to, rates, rateErrors);
+        if (fromRate == null || toRate == null) {
+            return BatchConversionResult.failed(from, to, amount, rateErrors.getOrDefault(from, rateErrors.get(to)));
+        }
+        return BatchConversionResult.converted(from, to, amount, FixedPointConversion.convert(amount, fromRate.rate(), toRate.rate()),
+                fromRate.stale() || toRate.stale());
+    }
+
+    private ResolvedRate resolveBatchRate(String currencyCode, Map<String, ResolvedRate> rates, Map<String, String> rateErrors) {
+        ResolvedRate rate = rates.get(currencyCode);
+        if (rate != null || rateErrors.containsKey(currencyCode)) {
+            return rate;
+        }
+        try {
+            rate = getExchangeRate(currencyCode);
+            rates.put(currencyCode, rate);
+            return rate;
+        } catch (RuntimeException ex) {
+            rateErrors.put(currencyCode, ex.getMessage());
+            return null;
+        }
+    }
+
+    private void validateConversion(String from, BigDecimal amount, String to) {
         if (isBlank(from) || isBlank(to)) {
             log.error("Currency code cannot be blank, empty or null");
             throw new IllegalArgumentException("Currency code cannot be blank, empty or null");
         }
+        if (amount == null) {
+            log.error("Amount cannot be null");
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
         if (amount.compareTo(BigDecimal.ZERO) < 0) {
             log.error("Amount cannot be negative");
             throw new IllegalArgumentException("Amount cannot be negative");
         }
-        BigDecimal fromRate = getExchangeRate(from);
-        BigDecimal toRate = getExchangeRate(to);
-        BigDecimal result = amount.multiply(fromRate).divide(toRate, 2, RoundingMode.HALF_UP);
-        log.info("Conversion result: {}", result);
-        return result;
     }
 
-    private BigDecimal getExchangeRate(String currencyCode) {
+    private void validateDate(LocalDate date) {
+        if (date != null && date.isAfter(LocalDate.now(clock))) {
+            log.error("Date cannot be in the future");
+            throw new IllegalArgumentException("Date cannot be in the future");
+        }
+    }
+
+    /**
+     * Converts with the current precomputed cross rate when both currencies are already in memory, falling back
+     * to the scaled rates where the cross rate cannot guarantee the exact result. Returns {@code null} so
+     * the caller resolves the missing rates first. A base currency leg uses its rate of 1 instead of a cross rate.
+     */
+    private BigDecimal convertInMemory(String from, BigDecimal amount, String to) {
+        Optional<ExchangeRateSnapshot> optionalSnapshot = exchangeRateStore.findCurrentSnapshot(LocalDate.now(clock));
+        if (optionalSnapshot.isEmpty()) {
+            return null;
+        }
+        ExchangeRateSnapshot snapshot = optionalSnapshot.get();
+        boolean fromBase = baseCurrency.isBase(from);
+        boolean toBase = baseCurrency.isBase(to);
+        int fromOrdinal = fromBase ? -1 : snapshot.ordinalOf(from);
+        int toOrdinal = toBase ? -1 : snapshot.ordinalOf(to);
+        if ((!fromBase && fromOrdinal < 0) || (!toBase && toOrdinal < 0)) {
+            return null;
+        }
+        if (!fromBase) {
+            rateMetrics.recordRateLookup(from, true);
+        }
+        if (!toBase) {
+            rateMetrics.recordRateLookup(to, true);
+        }
+        BigDecimal result = fromBase || toBase ? null : snapshot.getCrossRates().convert(amount, fromOrdinal, toOrdinal);
+        if (result == null) {
+            result = FixedPointConversion.convertScaled(amount,
+                    fromBase ? BaseCurrency.SCALED_RATE : snapshot.scaledRateAt(fromOrdinal),
+                    toBase ? BaseCurrency.SCALED_RATE : snapshot.scaledRateAt(toOrdinal));
+        }
+        return result != null ? result : FixedPointConversion.convertExact(amount,
+                fromBase ? BaseCurrency.RATE : snapshot.rateAt(fromOrdinal),
+                toBase ? BaseCurrency.RATE : snapshot.rateAt(toOrdinal));
+    }
+
+    /**
+     * Completes immediately for rates already in memory; only a lookup that may have to go upstream
+     * is handed to the {@link RateLookupExecutor}, so the two sides of a conversion are fetched in parallel.
+     */
+    private CompletableFuture<ResolvedRate> resolveExchangeRate(String currencyCode) {
+        if (baseCurrency.isBase(currencyCode)) {
+            return CompletableFuture.completedFuture(BASE_RATE);
+        }
+        Optional<BigDecimal> optionalRate = exchangeRateStore.findCurrentRate(currencyCode, LocalDate.now(clock));
+        if (optionalRate.isPresent()) {
+            rateMetrics.recordRateLookup(currencyCode, true);
+            return CompletableFuture.completedFuture(new ResolvedRate(optionalRate.get(), false));
+        }
+        return rateLookupExecutor.supply(() -> getExchangeRate(currencyCode));
+    }
+
+    private ResolvedRate getExchangeRate(String currencyCode) {
+        if (baseCurrency.isBase(currencyCode)) {
+            return BASE_RATE;
+        }
         LocalDate today = LocalDate.now(clock);
         log.info("Fetching exchange rate for {} on {}", currencyCode, today);
-        Optional<ExchangeRate> optionalExchangeRate = exchangeRateRepository.findByCurrencyCodeAndEffectiveDate(currencyCode, today);
-        if (optionalExchangeRate.isPresent()) {
-            log.info("Found exchange rate in database: {}", optionalExchangeRate.get().getRate());
-            return optionalExchangeRate.get().getRate();
-        } else {
-            log.info("Exchange rate not found in database, fetching from external API");
-            BigDecimal newRate = nbpApiConnector.fetchAndSaveExchangeRate(currencyCode);
-            log.info("Added new exchange rate to database: currencyCode={}, date={}, rate={}", currencyCode, today, newRate);
-            return newRate;
+        Optional<BigDecimal> optionalRate = exchangeRateStore.findCurrentRate(currencyCode, today);
+        rateMetrics.recordRateLookup(currencyCode, optionalRate.isPresent());
+        if (optionalRate.isPresent()) {
+            log.info("Found exchange rate in memory: {}", optionalRate.get());
+            return new ResolvedRate(optionalRate.get(), false);
+        } else if (exchangeRateStore.isCurrentWarm(today)) {
+            log.error("Exchange rate for {} is not published in the current rate tables", currencyCode);
+            throw new ExternalApiException("Exchange rate not published for currency: " + currencyCode);
+        }
+        Optional<BigDecimal> lastKnownRate = rateHistoryService.findLastKnownRate(currencyCode, today);
+        if (lastKnownRate.isPresent()) {
+            log.info("Serving last known exchange rate for {} while fetching today's rate", currencyCode);
+            refreshInBackground(currencyCode, today);
+            return new ResolvedRate(lastKnownRate.get(), true);
+        }
+        log.info("Exchange rate not found in memory, fetching from external API");
+        return new ResolvedRate(rateFetches.execute(new RateKey(currencyCode, today), () -> fetchExchangeRate(currencyCode, today)), false);
+    }
+
+    /**
+     * Fetches today's rate on the task scheduler, at most one refresh per currency at a time, so a request
+     * served with a stale rate never waits for NBP.
+     */
+    private void refreshInBackground(String currencyCode, LocalDate today) {
+        RateKey key = new RateKey(currencyCode, today);
+        if (!backgroundRefreshes.add(key)) {
+            return;
+        }
+        taskScheduler.schedule(() -> {
+            try {
+                rateFetches.execute(key, () -> fetchExchangeRate(currencyCode, today));
+            } catch (RuntimeException ex) {
+                log.warn("Background refresh of exchange rate for {} failed: {}", currencyCode, ex.getMessage());
+            } finally {
+                backgroundRefreshes.remove(key);
+            }
+        }, clock.instant());
+    }
+
+    private BigDecimal fetchExchangeRate(String currencyCode, LocalDate today) {
+        Optional<BigDecimal> optionalRate = exchangeRateStore.findCurrentRate(currencyCode, today);
+        if (optionalRate.isPresent()) {
+            return optionalRate.get();
         }
+        Rate newRate = rateProvider.fetchRate(currencyCode);
+        rateWriteBehindQueue.enqueue(new ExchangeRate(currencyCode, newRate, today));
+        currencyRegistry.register(List.of(currencyCode));
+        exchangeRateStore.put(currencyCode, newRate, today);
+        rateHistoryService.record(currencyCode, newRate, today);
+        log.info("Added new exchange rate to database: currencyCode={}, date={}, rate={}", currencyCode, today, newRate);
+        return newRate.toBigDecimal();
+    }
+
+    private record RateKey(String currencyCode, LocalDate effectiveDate) {
+    }
+
+    private record ResolvedRate(BigDecimal rate, boolean stale) {
     }
 
 
@@ -0,0 +1,76 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.model.ExchangeRate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads whole NBP rate tables in one request per table instead of one request per currency.
+ */
+@Slf4j
+@Service
+public class ExchangeRateIngestionService {
+
+    private final NbpApiConnector nbpApiConnector;
+
+    private final ExchangeRateStore exchangeRateStore;
+
+    private final RateHistoryStore rateHistoryStore;
+
+    private final CurrencyRegistry currencyRegistry;
+
+    private final RateSnapshotFile rateSnapshotFile;
+
+    private final RateUpdateBroadcaster rateUpdateBroadcaster;
+
+    private final Clock clock;
+
+    private final List<String> tables;
+
+    public ExchangeRateIngestionService(NbpApiConnector nbpApiConnector, ExchangeRateStore exchangeRateStore,
+                                        RateHistoryStore rateHistoryStore, CurrencyRegistry currencyRegistry,
+                                        RateSnapshotFile rateSnapshotFile, RateUpdateBroadcaster rateUpdateBroadcaster, Clock clock,
+                                        @Value("${nbp.api.tables:A}") List<String> tables) {
+        this.nbpApiConnector = nbpApiConnector;
+        this.exchangeRateStore = exchangeRateStore;
+        this.rateHistoryStore = rateHistoryStore;
+        this.currencyRegistry = currencyRegistry;
+        this.rateSnapshotFile = rateSnapshotFile;
+        this.rateUpdateBroadcaster = rateUpdateBroadcaster;
+        this.clock = clock;
+        this.tables = tables;
+    }
+
+    /**
+     * Loads the last published table of every configured table type. The rates are stored under their own
+     * effective dates, and the in-memory snapshot under the latest of them, which is marked warm.
+     *
+     * @return the effective date of the snapshot, earlier than today until today's table is published
+     */
+    public LocalDate ingestTables() {
+        List<ExchangeRate> exchangeRates = new ArrayList<>();
+        for (String table : tables) {
+            exchangeRates.addAll(nbpApiConnector.fetchAndSaveExchangeRateTable(table));
+        }
+        if (exchangeRates.isEmpty()) {
+            throw new IllegalStateException("No exchange rates published in tables " + tables);
+        }
+        LocalDate effectiveDate = exchangeRates.stream().map(ExchangeRate::getEffectiveDate).max(LocalDate::compareTo).orElseThrow();
+        exchangeRateStore.putAll(exchangeRates, effectiveDate);
+        rateHistoryStore.putAll(exchangeRates);
+        currencyRegistry.registerPublished(exchangeRates.stream().map(ExchangeRate::getCurrencyCode).toList());
+        exchangeRateStore.markWarm(effectiveDate);
+        exchangeRateStore.findSnapshot(effectiveDate).ifPresent(snapshot -> {
+            rateSnapshotFile.write(snapshot);
+            rateUpdateBroadcaster.publish(snapshot);
+        });
+        log.info("Ingested {} exchange rates from tables {} effective {} on {}", exchangeRates.size(), tables, effectiveDate, LocalDate.now(clock));
+        return effectiveDate;
+    }
+}
@@ -0,0 +1,132 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory holder of the current exchange rates, keyed by their effective date. Lookups read the current
+ * {@link ExchangeRateSnapshot} without locking; updates swap in a new snapshot atomically.
+ * <p>
+ * Today's conversions use today's snapshot or, until NBP publishes today's table, the last complete table
+ * published before today, which NBP's current rates still are.
+ */
+@Slf4j
+@Component
+public class ExchangeRateStore {
+
+    private final ExchangeRateRepository exchangeRateRepository;
+
+    private final Clock clock;
+
+    private final AtomicReference<ExchangeRateSnapshot> snapshot = new AtomicReference<>(ExchangeRateSnapshot.empty(LocalDate.MIN));
+
+    public ExchangeRateStore(ExchangeRateRepository exchangeRateRepository, Clock clock) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.clock = clock;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        reload(LocalDate.now(clock));
+    }
+
+    public void reload(LocalDate effectiveDate) {
+        List<ExchangeRate> exchangeRates = exchangeRateRepository.findByEffectiveDate(effectiveDate);
+        replace(ExchangeRateSnapshot.of(effectiveDate, exchangeRates));
+        log.info("Loaded {} exchange rates for {} from database", exchangeRates.size(), effectiveDate);
+    }
+
+    public Optional<BigDecimal> findRate(String currencyCode, LocalDate effectiveDate) {
+        ExchangeRateSnapshot current = snapshot.get();
+        if (!current.getEffectiveDate().equals(effectiveDate)) {
+            return Optional.empty();
+        }
+        return current.getRate(currencyCode);
+    }
+
+    public Optional<ExchangeRateSnapshot> findSnapshot(LocalDate effectiveDate) {
+        ExchangeRateSnapshot current = snapshot.get();
+        return current.getEffectiveDate().equals(effectiveDate) ? Optional.of(current) : Optional.empty();
+    }
+
+    public Optional<ExchangeRateSnapshot> findCurrentSnapshot(LocalDate today) {
+        ExchangeRateSnapshot current = snapshot.get();
+        return current.isCurrentOn(today) ? Optional.of(current) : Optional.empty();
+    }
+
+    public Optional<BigDecimal> findCurrentRate(String currencyCode, LocalDate today) {
+        return findCurrentSnapshot(today).flatMap(current -> current.getRate(currencyCode));
+    }
+
+    /**
+     * Whether the current snapshot holds a complete table, so a currency missing from it is not published.
+     */
+    public boolean isCurrentWarm(LocalDate today) {
+        return findCurrentSnapshot(today).map(ExchangeRateSnapshot::isWarm).orElse(false);
+    }
+
+    public boolean isWarm(LocalDate effectiveDate) {
+        ExchangeRateSnapshot current = snapshot.get();
+        return current.isWarm() && current.getEffectiveDate().equals(effectiveDate);
+    }
+
+    public ExchangeRateSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    public void put(String currencyCode, Rate rate, LocalDate effectiveDate) {
+        update(effectiveDate, base -> base.withRate(currencyCode, rate));
+    }
+
+    public void putAll(Collection<ExchangeRate> exchangeRates, LocalDate effectiveDate) {
+        update(effectiveDate, base -> base.withRates(exchangeRates));
+    }
+
+    public void markWarm(LocalDate effectiveDate) {
+        update(effectiveDate, ExchangeRateSnapshot::asWarm);
+    }
+
+    public void replace(ExchangeRateSnapshot replacement) {
+        snapshot.updateAndGet(current ->
+                replacement.getEffectiveDate().isBefore(current.getEffectiveDate()) ? current : replacement);
+    }
+
+    /**
+     * Installs a complete table of an earlier day while the current snapshot holds no rates, so it serves
+     * as the current rates until the later table is loaded.
+     */
+    public void replaceEmpty(ExchangeRateSnapshot earlier) {
+        snapshot.updateAndGet(current ->
+                current.size() == 0 || current.getEffectiveDate().isBefore(earlier.getEffectiveDate()) ? earlier : current);
+    }
+
+    private void update(LocalDate effectiveDate, UnaryOperator<ExchangeRateSnapshot> change) {
+        snapshot.updateAndGet(current -> {
+            if (effectiveDate.isBefore(current.getEffectiveDate())) {
+                return current;
+            }
+            ExchangeRateSnapshot base = effectiveDate.equals(current.getEffectiveDate())
+                    ? current
+                    : ExchangeRateSnapshot.empty(effectiveDate);
+            return change.apply(base);
+        });
+    }
+}
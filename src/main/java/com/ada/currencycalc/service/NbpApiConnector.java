@@ -1,27 +1,35 @@
 package com.ada.currencycalc.service;
 
+import com.ada.currencycalc.conversion.Rate;
 import com.ada.currencycalc.exceptions.ExternalApiException;
 import com.ada.currencycalc.model.ExchangeRate;
-import com.ada.currencycalc.model.ExchangeRateDTO;
 import com.ada.currencycalc.repository.ExchangeRateRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
-import java.math.BigDecimal;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class NbpApiConnector {
+public class NbpApiConnector implements RateProvider {
+
+    public static final int MAX_RANGE_DAYS = 93;
+
+    /**
+     * Effective date of the first table NBP publishes through its API.
+     */
+    public static final LocalDate FIRST_TABLE_DATE = LocalDate.of(2002, 1, 2);
 
     private final RestTemplate restTemplate;
 
@@ -29,32 +37,111 @@ public class NbpApiConnector {
 
     private final Clock clock;
 
+    private final RateMetrics rateMetrics;
+
+    private final NbpCircuitBreaker nbpCircuitBreaker;
+
+    private final NbpResponseReader responseReader = new NbpResponseReader();
+
     @Value("${nbp.api.url}")
     private String nbpApiUrl;
 
-    private boolean isValidExchangeRateDTO(ExchangeRateDTO exchangeRateDTO) {
-        return exchangeRateDTO != null && exchangeRateDTO.getRates() != null && !exchangeRateDTO.getRates().isEmpty();
+    @Value("${nbp.provider.deadline:PT5S}")
+    private Duration deadline;
+
+    @Override
+    public String getName() {
+        return "nbp";
+    }
+
+    @Override
+    public Duration getDeadline() {
+        return deadline;
     }
 
-    public BigDecimal fetchAndSaveExchangeRate(String currencyCode) {
-        String url = String.format(nbpApiUrl + "exchangerates/rates/A/%s/", currencyCode);
-        ResponseEntity<ExchangeRateDTO> response;
+    /**
+     * Fetches the rate of a single currency effective today from NBP's table A. NBP answers 404 until today's
+     * table is published and on days it publishes none, rather than returning an earlier rate.
+     */
+    @Override
+    public Rate fetchRate(String currencyCode) {
+        String url = String.format(nbpApiUrl + "exchangerates/rates/A/%s/%s/", currencyCode, LocalDate.now(clock));
+        List<ExchangeRate> exchangeRates;
         try {
-            response = restTemplate.exchange(url, HttpMethod.GET, HttpEntity.EMPTY, ExchangeRateDTO.class);
+            exchangeRates = nbpCircuitBreaker.call(() -> rateMetrics.timeNbpFetch("rate",
+                    () -> restTemplate.execute(url, HttpMethod.GET, null, seriesExtractor(currencyCode))));
         } catch (HttpClientErrorException.NotFound ex) {
             log.error("Error fetching exchange rate from external API: {}", ex.getMessage());
             throw new ExternalApiException(ex.getMessage());
 
         }
-        ExchangeRateDTO exchangeRateDTO = response.getBody();
-        if (!isValidExchangeRateDTO(exchangeRateDTO)) {
+        if (exchangeRates == null || exchangeRates.isEmpty()) {
             String errorMessage = "Unable to fetch exchange rate for currency: " + currencyCode;
             log.error(errorMessage);
             throw new RuntimeException(errorMessage);
         }
-        BigDecimal rate = exchangeRateDTO.getRates().get(0).getMid();
-        ExchangeRate exchangeRate = new ExchangeRate(currencyCode, rate, LocalDate.now(clock));
-        exchangeRateRepository.save(exchangeRate);
-        return rate;
+        return exchangeRates.get(0).getRate();
+    }
+
+    /**
+     * Fetches and saves every rate of the currency published between {@code start} and {@code end}
+     * inclusive. NBP answers at most {@value #MAX_RANGE_DAYS} days per request.
+     */
+    public List<ExchangeRate> fetchAndSaveExchangeRates(String currencyCode, LocalDate start, LocalDate end) {
+        String url = String.format(nbpApiUrl + "exchangerates/rates/A/%s/%s/%s/", currencyCode, start, end);
+        List<ExchangeRate> exchangeRates;
+        try {
+            exchangeRates = nbpCircuitBreaker.call(() -> rateMetrics.timeNbpFetch("range",
+                    () -> restTemplate.execute(url, HttpMethod.GET, null, seriesExtractor(currencyCode))));
+        } catch (HttpClientErrorException.NotFound ex) {
+            log.error("Error fetching exchange rates from external API: {}", ex.getMessage());
+            throw new ExternalApiException(ex.getMessage());
+        }
+        if (exchangeRates == null || exchangeRates.isEmpty()) {
+            String errorMessage = "Unable to fetch exchange rates for currency: " + currencyCode + " between " + start + " and " + end;
+            log.error(errorMessage);
+            throw new RuntimeException(errorMessage);
+        }
+        exchangeRateRepository.upsertAll(exchangeRates);
+        log.info("Saved {} exchange rates for {} between {} and {}", exchangeRates.size(), currencyCode, start, end);
+        return exchangeRates;
+    }
+
+    /**
+     * Fetches and saves the first table of the response, which is the last one NBP published. Its rates are
+     * stored under the table's effective date, an earlier date than today until today's table is published.
+     */
+    public List<ExchangeRate> fetchAndSaveExchangeRateTable(String table) {
+        String url = String.format(nbpApiUrl + "exchangerates/tables/%s/", table);
+        List<ExchangeRate> exchangeRates;
+        try {
+            exchangeRates = nbpCircuitBreaker.call(() -> rateMetrics.timeNbpFetch("table",
+                    () -> restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                        List<ExchangeRate> rates = new ArrayList<>();
+                        responseReader.readTables(response.getBody(),
+                                (currencyCode, effectiveDate, mid) -> rates.add(new ExchangeRate(currencyCode, mid, effectiveDate)));
+                        return rates;
+                    })));
+        } catch (HttpClientErrorException.NotFound ex) {
+            log.error("Error fetching exchange rate table from external API: {}", ex.getMessage());
+            throw new ExternalApiException(ex.getMessage());
+        }
+        if (exchangeRates == null || exchangeRates.isEmpty()) {
+            String errorMessage = "Unable to fetch exchange rate table: " + table;
+            log.error(errorMessage);
+            throw new RuntimeException(errorMessage);
+        }
+        exchangeRateRepository.upsertAll(exchangeRates);
+        log.info("Saved {} exchange rates from table {}", exchangeRates.size(), table);
+        return exchangeRates;
+    }
+
+    private ResponseExtractor<List<ExchangeRate>> seriesExtractor(String currencyCode) {
+        return response -> {
+            List<ExchangeRate> rates = new ArrayList<>();
+            responseReader.readSeries(response.getBody(), currencyCode,
+                    (code, effectiveDate, mid) -> rates.add(new ExchangeRate(code, mid, effectiveDate)));
+            return rates;
+        };
     }
 }
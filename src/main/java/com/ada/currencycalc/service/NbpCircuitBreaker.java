@@ -0,0 +1,107 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.exceptions.UpstreamUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Stops calling NBP after {@code failureThreshold} consecutive failures. While open, calls fail at once
+ * with {@link UpstreamUnavailableException}; after {@code openDuration} a single probe call is let through
+ * (half-open) and its outcome closes the breaker or opens it again.
+ * <p>
+ * A 4xx answer means NBP is up, so only I/O errors, timeouts, 5xx answers, unreadable bodies and errors thrown
+ * during the call count as failures; every call that was let through records its outcome, so a probe
+ * cannot leave the breaker half-open.
+ */
+@Slf4j
+@Component
+public class NbpCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final Clock clock;
+
+    private final int failureThreshold;
+
+    private final Duration openDuration;
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures;
+
+    private Instant openedAt;
+
+    public NbpCircuitBreaker(Clock clock,
+                             @Value("${nbp.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                             @Value("${nbp.circuit-breaker.open-duration:PT30S}") Duration openDuration) {
+        this.clock = clock;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    public <T> T call(Supplier<T> upstreamCall) {
+        if (!tryAcquire()) {
+            throw new UpstreamUnavailableException("NBP API is unavailable, try again later");
+        }
+        boolean succeeded = false;
+        try {
+            T result = upstreamCall.get();
+            succeeded = true;
+            return result;
+        } catch (HttpClientErrorException ex) {
+            succeeded = true;
+            throw ex;
+        } finally {
+            if (succeeded) {
+                onSuccess();
+            } else {
+                onFailure();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private synchronized boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> {
+                if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+                    yield false;
+                }
+                log.info("NBP circuit breaker half-open, probing");
+                state = State.HALF_OPEN;
+                yield true;
+            }
+        };
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("NBP circuit breaker closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            log.warn("NBP circuit breaker opened after {} consecutive failures", consecutiveFailures);
+            state = State.OPEN;
+            openedAt = clock.instant();
+        }
+    }
+}
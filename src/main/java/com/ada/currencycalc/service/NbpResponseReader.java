@@ -0,0 +1,196 @@
+package com.ada.currencycalc.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads NBP responses token by token and passes each rate to a {@link RateHandler}, without binding the
+ * response into DTOs. Field names come from the parser's symbol table, dates are parsed from the parser's
+ * character buffer and fields that are not needed are skipped unread.
+ */
+public final class NbpResponseReader {
+
+    private static final int DATE_LENGTH = 10;
+
+    private final JsonFactory jsonFactory;
+
+    public NbpResponseReader() {
+        this(new JsonFactory());
+    }
+
+    public NbpResponseReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    @FunctionalInterface
+    public interface RateHandler {
+        void accept(String currencyCode, LocalDate effectiveDate, BigDecimal mid);
+    }
+
+    /**
+     * Reads an {@code exchangerates/rates/A/{code}/...} response, passing every rate to {@code handler} with
+     * {@code currencyCode}. Returns the number of rates read.
+     */
+    public int readSeries(InputStream in, String currencyCode, RateHandler handler) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            int count = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("rates".equals(field)) {
+                    count += readSeriesRates(parser, value, currencyCode, handler);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Reads an {@code exchangerates/tables/{table}/} response, passing every rate of the first table to
+     * {@code handler} with the table's effective date. NBP sends the date before the rates, so they are
+     * passed on as they are read; rates that come first are held until the table's date has been read.
+     * Returns the number of rates read.
+     *
+     * @throws JsonParseException when the table has rates but no effective date
+     */
+    public int readTables(InputStream in, RateHandler handler) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return 0;
+            }
+            LocalDate effectiveDate = null;
+            List<TableRate> heldRates = new ArrayList<>();
+            int count = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("effectiveDate".equals(field)) {
+                    effectiveDate = readDate(parser);
+                } else if ("rates".equals(field) && effectiveDate != null) {
+                    LocalDate tableDate = effectiveDate;
+                    count += readTableRates(parser, value, (currencyCode, mid) -> handler.accept(currencyCode, tableDate, mid));
+                } else if ("rates".equals(field)) {
+                    count += readTableRates(parser, value, (currencyCode, mid) -> heldRates.add(new TableRate(currencyCode, mid)));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (!heldRates.isEmpty() && effectiveDate == null) {
+                throw new JsonParseException(parser, "Table rates without effectiveDate");
+            }
+            for (TableRate rate : heldRates) {
+                handler.accept(rate.currencyCode(), effectiveDate, rate.mid());
+            }
+            return count;
+        }
+    }
+
+    private int readSeriesRates(JsonParser parser, JsonToken value, String currencyCode, RateHandler handler) throws IOException {
+        expect(parser, value, JsonToken.START_ARRAY);
+        int count = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            LocalDate effectiveDate = null;
+            BigDecimal mid = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("effectiveDate".equals(field)) {
+                    effectiveDate = readDate(parser);
+                } else if ("mid".equals(field)) {
+                    mid = parser.getDecimalValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (effectiveDate == null || mid == null) {
+                throw new JsonParseException(parser, "Rate of " + currencyCode + " without effectiveDate or mid");
+            }
+            handler.accept(currencyCode, effectiveDate, mid);
+            count++;
+        }
+        return count;
+    }
+
+    private int readTableRates(JsonParser parser, JsonToken value, TableRateHandler handler) throws IOException {
+        expect(parser, value, JsonToken.START_ARRAY);
+        int count = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String currencyCode = null;
+            BigDecimal mid = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("code".equals(field)) {
+                    currencyCode = parser.getText();
+                } else if ("mid".equals(field)) {
+                    mid = parser.getDecimalValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (currencyCode == null || mid == null) {
+                throw new JsonParseException(parser, "Table rate without code or mid");
+            }
+            handler.accept(currencyCode, mid);
+            count++;
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface TableRateHandler {
+        void accept(String currencyCode, BigDecimal mid);
+    }
+
+    private record TableRate(String currencyCode, BigDecimal mid) {
+    }
+
+    /**
+     * Parses a {@code yyyy-MM-dd} string value in place.
+     */
+    static LocalDate readDate(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.VALUE_STRING);
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        if (parser.getTextLength() != DATE_LENGTH || text[offset + 4] != '-' || text[offset + 7] != '-') {
+            throw new JsonParseException(parser, "Expected a yyyy-MM-dd date");
+        }
+        try {
+            return LocalDate.of(digits(parser, text, offset, 4), digits(parser, text, offset + 5, 2), digits(parser, text, offset + 8, 2));
+        } catch (DateTimeException ex) {
+            throw new JsonParseException(parser, ex.getMessage(), ex);
+        }
+    }
+
+    private static int digits(JsonParser parser, char[] text, int offset, int length) throws JsonParseException {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char digit = text[i];
+            if (digit < '0' || digit > '9') {
+                throw new JsonParseException(parser, "Expected a yyyy-MM-dd date");
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but was " + actual);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.FixedPointConversion;
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Writes all rates of one effective date, from the in-memory snapshot when it holds that date and from the
+ * database otherwise. Rows are read in chunks of {@link #CHUNK_SIZE}, each query finishing before its rates
+ * are written, so a slow client never holds a connection of the pool.
+ * <p>
+ * The binary format is a 10 byte header, the ASCII magic {@code CCRT}, a format version byte, a rate scale
+ * byte and the effective date as a big-endian int epoch day, followed by one 11 byte record per currency
+ * until the end of the stream: the 3 byte ASCII currency code and the rate as a big-endian long scaled by
+ * the rate scale byte, rounded half up when the rate has more decimal places.
+ */
+@Slf4j
+@Service
+public class RateExportService {
+
+    public static final String BINARY_MEDIA_TYPE = "application/vnd.currency-calc.rates";
+
+    static final byte[] MAGIC = {'C', 'C', 'R', 'T'};
+
+    static final int FORMAT_VERSION = 1;
+
+    public static final int CHUNK_SIZE = 256;
+
+    private static final int CURRENCY_CODE_LENGTH = 3;
+
+    private final ExchangeRateStore exchangeRateStore;
+
+    private final ExchangeRateRepository exchangeRateRepository;
+
+    private final JsonFactory jsonFactory;
+
+    private final Clock clock;
+
+    public RateExportService(ExchangeRateStore exchangeRateStore, ExchangeRateRepository exchangeRateRepository,
+                             ObjectMapper objectMapper, Clock clock) {
+        this.exchangeRateStore = exchangeRateStore;
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.jsonFactory = objectMapper.getFactory();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the effective date to export for {@code requestedDate}, today when it is {@code null}.
+     */
+    public LocalDate resolveEffectiveDate(LocalDate requestedDate) {
+        LocalDate today = LocalDate.now(clock);
+        if (requestedDate == null) {
+            return today;
+        }
+        if (requestedDate.isAfter(today)) {
+            log.error("Date cannot be in the future");
+            throw new IllegalArgumentException("Date cannot be in the future");
+        }
+        return requestedDate;
+    }
+
+    public void writeJson(LocalDate effectiveDate, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("effectiveDate", effectiveDate.toString());
+            generator.writeObjectFieldStart("rates");
+            forEachRate(effectiveDate, generator::writeNumberField);
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    public void writeBinary(LocalDate effectiveDate, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.write(MAGIC);
+        data.writeByte(FORMAT_VERSION);
+        data.writeByte(FixedPointConversion.RATE_SCALE);
+        data.writeInt(Math.toIntExact(effectiveDate.toEpochDay()));
+        forEachRate(effectiveDate, (currencyCode, rate) -> {
+            byte[] code = currencyCode.getBytes(StandardCharsets.US_ASCII);
+            if (code.length != CURRENCY_CODE_LENGTH) {
+                log.warn("Skipping currency {} in binary export, code is not {} characters", currencyCode, CURRENCY_CODE_LENGTH);
+                return;
+            }
+            data.write(code);
+            data.writeLong(scaledRate(rate));
+        });
+        data.flush();
+    }
+
+    private void forEachRate(LocalDate effectiveDate, RateWriter writer) throws IOException {
+        Optional<ExchangeRateSnapshot> snapshot = exchangeRateStore.findSnapshot(effectiveDate)
+                .filter(candidate -> candidate.size() > 0);
+        if (snapshot.isPresent()) {
+            for (Map.Entry<String, Rate> rate : snapshot.get().getRates().entrySet()) {
+                writer.write(rate.getKey(), rate.getValue().toBigDecimal());
+            }
+            return;
+        }
+        String lastCurrencyCode = "";
+        Map<String, BigDecimal> chunk;
+        do {
+            chunk = exchangeRateRepository.findRatesAfter(effectiveDate, lastCurrencyCode, CHUNK_SIZE);
+            for (Map.Entry<String, BigDecimal> rate : chunk.entrySet()) {
+                writer.write(rate.getKey(), rate.getValue());
+                lastCurrencyCode = rate.getKey();
+            }
+        } while (chunk.size() == CHUNK_SIZE);
+    }
+
+    private static long scaledRate(BigDecimal rate) {
+        long scaled = FixedPointConversion.scaleRate(rate);
+        if (scaled != FixedPointConversion.NOT_SCALABLE) {
+            return scaled;
+        }
+        return rate.setScale(FixedPointConversion.RATE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    @FunctionalInterface
+    private interface RateWriter {
+        void write(String currencyCode, BigDecimal rate) throws IOException;
+    }
+}
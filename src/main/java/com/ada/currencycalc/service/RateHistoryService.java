@@ -0,0 +1,172 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.exceptions.ExternalApiException;
+import com.ada.currencycalc.model.BackfillResult;
+import com.ada.currencycalc.model.ExchangeRate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Answers rate lookups at past dates from the {@link RateHistoryStore} and fills it from NBP's date range
+ * endpoint, so a run of historical conversions costs one upstream call per currency and range, not per date.
+ */
+@Slf4j
+@Service
+public class RateHistoryService {
+
+    private final RateHistoryStore rateHistoryStore;
+
+    private final NbpApiConnector nbpApiConnector;
+
+    private final Clock clock;
+
+    private final CurrencyRegistry currencyRegistry;
+
+    private final BaseCurrency baseCurrency;
+
+    private final Period maxGap;
+
+    private final boolean staleWhileRevalidate;
+
+    private final Period maxBackfillSpan;
+
+    private final int maxBackfillCurrencies;
+
+    public RateHistoryService(RateHistoryStore rateHistoryStore, NbpApiConnector nbpApiConnector, Clock clock,
+                              CurrencyRegistry currencyRegistry, BaseCurrency baseCurrency,
+                              @Value("${nbp.history.max-gap:P7D}") Period maxGap,
+                              @Value("${nbp.resilience.stale-while-revalidate:true}") boolean staleWhileRevalidate,
+                              @Value("${nbp.backfill.max-span:P1Y}") Period maxBackfillSpan,
+                              @Value("${nbp.backfill.max-currencies:10}") int maxBackfillCurrencies) {
+        this.rateHistoryStore = rateHistoryStore;
+        this.nbpApiConnector = nbpApiConnector;
+        this.clock = clock;
+        this.currencyRegistry = currencyRegistry;
+        this.baseCurrency = baseCurrency;
+        this.maxGap = maxGap;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.maxBackfillSpan = maxBackfillSpan;
+        this.maxBackfillCurrencies = maxBackfillCurrencies;
+    }
+
+    /**
+     * Returns the most recent rate published before {@code date} and no older than the maximum gap, which may
+     * be served while the rate for {@code date} is fetched. Always empty when stale-while-revalidate is disabled.
+     */
+    public Optional<BigDecimal> findLastKnownRate(String currencyCode, LocalDate date) {
+        if (!staleWhileRevalidate) {
+            return Optional.empty();
+        }
+        if (baseCurrency.isBase(currencyCode)) {
+            return Optional.of(BaseCurrency.RATE);
+        }
+        LocalDate previousDay = date.minusDays(1);
+        return rateHistoryStore.findRateOnOrBefore(currencyCode, previousDay, date.minus(maxGap));
+    }
+
+    public void record(String currencyCode, Rate rate, LocalDate effectiveDate) {
+        rateHistoryStore.put(currencyCode, rate, effectiveDate);
+    }
+
+    /**
+     * Returns the rate in force on {@code date}. An earlier rate from the history only counts when the history
+     * knows NBP published none since, as on weekends and holidays; otherwise the window of the configured
+     * maximum gap up to {@code date} is fetched from NBP once and the last rate within it is returned.
+     */
+    public BigDecimal getExchangeRate(String currencyCode, LocalDate date) {
+        if (baseCurrency.isBase(currencyCode)) {
+            return BaseCurrency.RATE;
+        }
+        Optional<BigDecimal> optionalRate = rateHistoryStore.findKnownRate(currencyCode, date);
+        if (optionalRate.isPresent()) {
+            return optionalRate.get();
+        }
+        LocalDate earliest = date.minus(maxGap);
+        log.info("Exchange rate for {} on {} not known from history, fetching from external API", currencyCode, date);
+        putRange(currencyCode, earliest, date, nbpApiConnector.fetchAndSaveExchangeRates(currencyCode, earliest, date));
+        return rateHistoryStore.findRateOnOrBefore(currencyCode, date, earliest)
+                .orElseThrow(() -> new ExternalApiException("Exchange rate not published for currency: " + currencyCode + " on or before " + date));
+    }
+
+    /**
+     * Loads the rates of every currency between {@code start} and {@code end} inclusive, splitting the range
+     * into the largest windows NBP accepts. A window without any published rate counts as zero rates.
+     * Every window is a sequential NBP call, so the range may not start before NBP's first table nor span more
+     * than {@code nbp.backfill.max-span}, and at most {@code nbp.backfill.max-currencies} currencies are accepted.
+     */
+    public BackfillResult backfill(List<String> currencyCodes, LocalDate start, LocalDate end) {
+        validateRange(currencyCodes, start, end);
+        Map<String, Integer> ratesByCurrency = new LinkedHashMap<>();
+        for (String currencyCode : currencyCodes.stream().map(currencyRegistry::resolve).filter(code -> !baseCurrency.isBase(code)).distinct().toList()) {
+            int loaded = 0;
+            for (LocalDate windowStart = start; !windowStart.isAfter(end); windowStart = windowStart.plusDays(NbpApiConnector.MAX_RANGE_DAYS)) {
+                LocalDate windowEnd = min(windowStart.plusDays(NbpApiConnector.MAX_RANGE_DAYS - 1), end);
+                loaded += backfillWindow(currencyCode, windowStart, windowEnd);
+            }
+            ratesByCurrency.put(currencyCode, loaded);
+        }
+        log.info("Backfilled exchange rates between {} and {}: {}", start, end, ratesByCurrency);
+        return new BackfillResult(start, end, ratesByCurrency);
+    }
+
+    private int backfillWindow(String currencyCode, LocalDate start, LocalDate end) {
+        try {
+            List<ExchangeRate> exchangeRates = nbpApiConnector.fetchAndSaveExchangeRates(currencyCode, start, end);
+            putRange(currencyCode, start, end, exchangeRates);
+            return exchangeRates.size();
+        } catch (ExternalApiException ex) {
+            log.warn("No exchange rates published for {} between {} and {}", currencyCode, start, end);
+            return 0;
+        }
+    }
+
+    /**
+     * Today's table may still be published later today, so a range reaching today only covers the days before.
+     */
+    private void putRange(String currencyCode, LocalDate start, LocalDate end, List<ExchangeRate> exchangeRates) {
+        LocalDate yesterday = LocalDate.now(clock).minusDays(1);
+        rateHistoryStore.putRange(currencyCode, start, end.isAfter(yesterday) ? yesterday : end, exchangeRates);
+    }
+
+    private void validateRange(List<String> currencyCodes, LocalDate start, LocalDate end) {
+        if (currencyCodes == null || currencyCodes.isEmpty()) {
+            log.error("Currency codes cannot be empty");
+            throw new IllegalArgumentException("Currency codes cannot be empty");
+        }
+        if (currencyCodes.size() > maxBackfillCurrencies) {
+            log.error("Cannot backfill {} currencies at once", currencyCodes.size());
+            throw new IllegalArgumentException("At most " + maxBackfillCurrencies + " currencies can be backfilled at once");
+        }
+        if (start.isAfter(end)) {
+            log.error("Start date cannot be after end date");
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        if (end.isAfter(LocalDate.now(clock))) {
+            log.error("End date cannot be in the future");
+            throw new IllegalArgumentException("End date cannot be in the future");
+        }
+        if (start.isBefore(NbpApiConnector.FIRST_TABLE_DATE)) {
+            log.error("Start date {} is before NBP's first table", start);
+            throw new IllegalArgumentException("Start date cannot be before " + NbpApiConnector.FIRST_TABLE_DATE);
+        }
+        if (end.isAfter(start.plus(maxBackfillSpan))) {
+            log.error("Backfill range from {} to {} is longer than {}", start, end, maxBackfillSpan);
+            throw new IllegalArgumentException("Backfill range cannot be longer than " + maxBackfillSpan);
+        }
+    }
+
+    private static LocalDate min(LocalDate first, LocalDate second) {
+        return first.isBefore(second) ? first : second;
+    }
+}
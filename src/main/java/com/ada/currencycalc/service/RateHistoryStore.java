@@ -0,0 +1,115 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.model.RateTimeSeries;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory rate history per currency for conversions at past dates. Each currency's
+ * {@link RateTimeSeries} is replaced as a whole, so lookups never see a partially merged series.
+ */
+@Slf4j
+@Component
+public class RateHistoryStore {
+
+    private final ExchangeRateRepository exchangeRateRepository;
+
+    private final Clock clock;
+
+    private final Period retention;
+
+    private final Map<String, RateTimeSeries> series = new ConcurrentHashMap<>();
+
+    public RateHistoryStore(ExchangeRateRepository exchangeRateRepository, Clock clock,
+                            @Value("${nbp.retention.period:P400D}") Period retention) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.clock = clock;
+        this.retention = retention;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDate cutoff = LocalDate.now(clock).minus(retention);
+        List<ExchangeRate> exchangeRates = exchangeRateRepository.findByEffectiveDateGreaterThanEqual(cutoff);
+        putAll(exchangeRates);
+        log.info("Loaded {} historical exchange rates since {} from database", exchangeRates.size(), cutoff);
+    }
+
+    public Optional<BigDecimal> findRateOnOrBefore(String currencyCode, LocalDate date, LocalDate earliest) {
+        return series.getOrDefault(currencyCode, RateTimeSeries.empty()).rateOnOrBefore(date, earliest);
+    }
+
+    /**
+     * Returns the rate in force on {@code date} when the history holds every rate NBP published since it.
+     */
+    public Optional<BigDecimal> findKnownRate(String currencyCode, LocalDate date) {
+        return series.getOrDefault(currencyCode, RateTimeSeries.empty()).knownRateOn(date);
+    }
+
+    public void put(String currencyCode, Rate rate, LocalDate effectiveDate) {
+        putAll(currencyCode, Map.of(effectiveDate, rate.toBigDecimal()));
+    }
+
+    public void putAll(Collection<ExchangeRate> exchangeRates) {
+        Map<String, Map<LocalDate, BigDecimal>> byCurrency = new HashMap<>();
+        for (ExchangeRate exchangeRate : exchangeRates) {
+            byCurrency.computeIfAbsent(exchangeRate.getCurrencyCode(), code -> new HashMap<>())
+                    .put(exchangeRate.getEffectiveDate(), exchangeRate.getRate().toBigDecimal());
+        }
+        byCurrency.forEach(this::putAll);
+    }
+
+    /**
+     * Adds every rate NBP published for the currency from {@code start} to {@code end} inclusive, so the days
+     * of that range without a rate are known to have none.
+     */
+    public void putRange(String currencyCode, LocalDate start, LocalDate end, Collection<ExchangeRate> exchangeRates) {
+        Map<LocalDate, BigDecimal> rates = new HashMap<>();
+        for (ExchangeRate exchangeRate : exchangeRates) {
+            rates.put(exchangeRate.getEffectiveDate(), exchangeRate.getRate().toBigDecimal());
+        }
+        series.compute(currencyCode, (code, current) -> (current != null ? current : RateTimeSeries.empty()).withRates(rates, start, end));
+    }
+
+    public void evictBefore(LocalDate cutoff) {
+        evict(current -> current.withoutRatesBefore(cutoff));
+    }
+
+    public void evictBetween(LocalDate start, LocalDate end) {
+        evict(current -> current.withoutRatesBetween(start, end));
+    }
+
+    private void evict(UnaryOperator<RateTimeSeries> eviction) {
+        for (String currencyCode : series.keySet()) {
+            series.computeIfPresent(currencyCode, (code, current) -> {
+                RateTimeSeries retained = eviction.apply(current);
+                return retained.size() > 0 ? retained : null;
+            });
+        }
+    }
+
+    private void putAll(String currencyCode, Map<LocalDate, BigDecimal> rates) {
+        series.compute(currencyCode, (code, current) -> (current != null ? current : RateTimeSeries.empty()).withRates(rates));
+    }
+}
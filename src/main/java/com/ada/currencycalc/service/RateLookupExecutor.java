@@ -0,0 +1,91 @@
+package com.ada.currencycalc.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs rate lookups that may block on the database or NBP. With {@code spring.threads.virtual.enabled}
+ * each lookup gets its own virtual thread, so independent lookups proceed in parallel; otherwise
+ * lookups run on the calling thread as before.
+ * <p>
+ * Lookups that must not block the caller, such as those bounded by a deadline, always run on another thread:
+ * a virtual one when enabled, otherwise one of {@code rates.lookup.platform-threads} platform threads.
+ */
+@Component
+public class RateLookupExecutor implements AutoCloseable {
+
+    private final ExecutorService virtualThreads;
+
+    private final ExecutorService platformThreads;
+
+    public RateLookupExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                              @Value("${rates.lookup.platform-threads:8}") int platformThreads) {
+        if (platformThreads < 1) {
+            throw new IllegalArgumentException("Rate lookup platform threads must be at least 1");
+        }
+        this.virtualThreads = virtualThreadsEnabled ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        this.platformThreads = virtualThreadsEnabled ? null
+                : Executors.newFixedThreadPool(platformThreads, Thread.ofPlatform().name("rate-lookup-", 0).daemon().factory());
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> lookup) {
+        if (virtualThreads == null) {
+            try {
+                return CompletableFuture.completedFuture(lookup.get());
+            } catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+        return CompletableFuture.supplyAsync(lookup, virtualThreads);
+    }
+
+    /**
+     * Runs {@code lookup} on another thread even when virtual threads are disabled. The returned future fails
+     * with a {@link TimeoutException} once {@code timeout} has passed; when it completes before the lookup,
+     * whether by that timeout or by being cancelled, the lookup's thread is interrupted so it is not held any longer.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> lookup, Duration timeout) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = (virtualThreads != null ? virtualThreads : platformThreads).submit(() -> {
+            try {
+                result.complete(lookup.get());
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS)
+                .whenComplete((value, failure) -> task.cancel(true));
+        return result;
+    }
+
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+        if (platformThreads != null) {
+            platformThreads.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.ada.currencycalc.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the conversion, rate lookup, NBP fetch, rate provider, rate stream and cleanup paths. Every meter is registered once
+ * and cached, so recording on the hot path is a map read and an increment.
+ */
+@Component
+public class RateMetrics {
+
+    static final int MAX_CURRENCY_TAGS = 256;
+
+    static final String OTHER_CURRENCY = "other";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer conversionTimer;
+
+    private final Timer cleanupTimer;
+
+    private final Counter streamDropCounter;
+
+    private final Map<String, Counter> hits = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> misses = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> nbpFetchTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> rateProviderTimers = new ConcurrentHashMap<>();
+
+    public RateMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.conversionTimer = Timer.builder("currency.conversion")
+                .description("Time spent converting a single amount")
+                .register(meterRegistry);
+        this.cleanupTimer = Timer.builder("currency.cleanup")
+                .description("Time spent removing outdated exchange rates")
+                .register(meterRegistry);
+        this.streamDropCounter = Counter.builder("currency.rates.stream.dropped")
+                .description("Rate stream subscribers disconnected for falling behind")
+                .register(meterRegistry);
+    }
+
+    public <T> T timeConversion(Supplier<T> conversion) {
+        return conversionTimer.record(conversion);
+    }
+
+    public <T> T timeCleanup(Supplier<T> cleanup) {
+        return cleanupTimer.record(cleanup);
+    }
+
+    public void recordRateLookup(String currencyCode, boolean hit) {
+        Map<String, Counter> counters = hit ? hits : misses;
+        Counter counter = counters.get(currencyCode);
+        if (counter == null) {
+            counter = lookupCounter(counters, currencyCode, hit ? "hit" : "miss");
+        }
+        counter.increment();
+    }
+
+    /**
+     * Times a call to the NBP API, tagging it with the outcome: {@code success}, {@code not_found}
+     * for a 404 or {@code error} for any other failure.
+     */
+    public <T> T timeNbpFetch(String request, Supplier<T> fetch) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = fetch.get();
+            outcome = "success";
+            return result;
+        } catch (HttpClientErrorException.NotFound ex) {
+            outcome = "not_found";
+            throw ex;
+        } finally {
+            nbpFetchTimer(request, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records one call to a rate source with its outcome: {@code success}, {@code not_found},
+     * {@code unavailable} when it timed out or its circuit was open, or {@code error}.
+     */
+    public void recordRateProviderCall(String source, String outcome, long nanos) {
+        rateProviderTimers.computeIfAbsent(source + ':' + outcome, key -> Timer.builder("currency.rate-provider.requests")
+                        .description("Latency of rate source calls")
+                        .tag("source", source)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStreamSubscriberDropped() {
+        streamDropCounter.increment();
+    }
+
+    /**
+     * Currency codes come from request parameters, so the number of distinct tags is capped and any
+     * further codes share the {@value #OTHER_CURRENCY} series.
+     */
+    private Counter lookupCounter(Map<String, Counter> counters, String currencyCode, String result) {
+        String tag = counters.size() < MAX_CURRENCY_TAGS ? currencyCode : OTHER_CURRENCY;
+        Counter counter = Counter.builder("currency.rate.lookups")
+                .description("Exchange rate lookups by currency and whether the rate was already in memory")
+                .tag("currency", tag)
+                .tag("result", result)
+                .register(meterRegistry);
+        if (tag.equals(currencyCode)) {
+            counters.putIfAbsent(currencyCode, counter);
+        }
+        return counter;
+    }
+
+    private Timer nbpFetchTimer(String request, String outcome) {
+        return nbpFetchTimers.computeIfAbsent(request + ':' + outcome, key -> Timer.builder("nbp.fetch")
+                .description("Latency of NBP API calls")
+                .tag("request", request)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
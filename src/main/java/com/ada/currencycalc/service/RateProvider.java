@@ -0,0 +1,27 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+
+import java.time.Duration;
+
+/**
+ * A source of today's exchange rates quoted against the {@link BaseCurrency}. Implementations only fetch;
+ * the caller stores the rate it settles on.
+ */
+public interface RateProvider {
+
+    /**
+     * Names the source in logs and in the {@code currency.rate-provider.requests} meters.
+     */
+    String getName();
+
+    /**
+     * How long a {@link CompositeRateProvider} waits for this source before counting it as timed out.
+     */
+    Duration getDeadline();
+
+    /**
+     * @throws com.ada.currencycalc.exceptions.ExternalApiException when the source does not publish the currency
+     */
+    Rate fetchRate(String currencyCode);
+}
@@ -0,0 +1,247 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps the last fully loaded rate table in a local file, so a restarted instance with an empty in-memory
+ * database serves rates without asking NBP. The file is written to a temporary sibling and renamed into
+ * place, so readers only ever see a complete file, and it is memory-mapped on startup before the readiness
+ * state changes to accepting traffic.
+ * <p>
+ * The format is a 14 byte header, the ASCII magic {@code CCSN}, a format version byte, a flags byte with
+ * bit 0 set for a warm snapshot, the effective date as a big-endian int epoch day and the record count as
+ * a big-endian int, followed by one 12 byte record per currency, the 3 byte ASCII currency code, the rate
+ * scale as a byte and the unscaled rate as a big-endian long, and a trailing CRC32C of everything before it.
+ */
+@Slf4j
+@Component
+public class RateSnapshotFile {
+
+    static final byte[] MAGIC = {'C', 'C', 'S', 'N'};
+
+    static final int FORMAT_VERSION = 1;
+
+    private static final int WARM_FLAG = 1;
+
+    private static final int HEADER_LENGTH = 14;
+
+    private static final int RECORD_LENGTH = 12;
+
+    private static final int CHECKSUM_LENGTH = 4;
+
+    private static final int CURRENCY_CODE_LENGTH = 3;
+
+    private final ExchangeRateStore exchangeRateStore;
+
+    private final RateHistoryStore rateHistoryStore;
+
+    private final CurrencyRegistry currencyRegistry;
+
+    private final Clock clock;
+
+    private final boolean enabled;
+
+    private final Path path;
+
+    public RateSnapshotFile(ExchangeRateStore exchangeRateStore, RateHistoryStore rateHistoryStore,
+                            CurrencyRegistry currencyRegistry, Clock clock,
+                            @Value("${nbp.snapshot.enabled:true}") boolean enabled,
+                            @Value("${nbp.snapshot.path:data/rate-snapshot.bin}") Path path) {
+        this.exchangeRateStore = exchangeRateStore;
+        this.rateHistoryStore = rateHistoryStore;
+        this.currencyRegistry = currencyRegistry;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.path = path;
+    }
+
+    /**
+     * Restores the snapshot file after the database has been read. Today's snapshot replaces a store that
+     * is not warm yet, so the warm-up skips NBP. A complete table of an earlier day is still current until
+     * today's is published, so it fills a store that has no rates yet and serves warm but stale while the
+     * warm-up fetches today's table; any other snapshot only seeds the rate history.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        if (!enabled) {
+            return;
+        }
+        Optional<ExchangeRateSnapshot> restored = read();
+        if (restored.isEmpty()) {
+            return;
+        }
+        ExchangeRateSnapshot snapshot = restored.get();
+        LocalDate today = LocalDate.now(clock);
+        boolean current = snapshot.isCurrentOn(today);
+        List<ExchangeRate> exchangeRates = new ArrayList<>(snapshot.size());
+        snapshot.getRates().forEach((currencyCode, rate) ->
+                exchangeRates.add(new ExchangeRate(currencyCode, rate, snapshot.getEffectiveDate())));
+        rateHistoryStore.putAll(exchangeRates);
+        if (current && snapshot.isWarm()) {
+            currencyRegistry.registerPublished(snapshot.getRates().keySet());
+        } else {
+            currencyRegistry.register(snapshot.getRates().keySet());
+        }
+        if (snapshot.getEffectiveDate().equals(today)) {
+            if (!exchangeRateStore.isWarm(today)) {
+                exchangeRateStore.replace(snapshot);
+            }
+        } else if (current) {
+            exchangeRateStore.replaceEmpty(snapshot);
+        }
+        log.info("Restored {} exchange rates for {} from {}", snapshot.size(), snapshot.getEffectiveDate(), path);
+    }
+
+    /**
+     * Reads the snapshot file, or returns empty when there is none or it is truncated, corrupt or of an
+     * unknown format version.
+     */
+    public Optional<ExchangeRateSnapshot> read() {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException ex) {
+            log.info("No exchange rate snapshot at {}", path);
+            return Optional.empty();
+        } catch (IOException ex) {
+            log.warn("Cannot read exchange rate snapshot {}: {}", path, ex.getMessage());
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(decode(buffer));
+        } catch (IllegalStateException ex) {
+            log.warn("Ignoring exchange rate snapshot {}: {}", path, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Replaces the snapshot file with {@code snapshot}. Failures are logged, since the file only speeds
+     * up the next start.
+     */
+    public void write(ExchangeRateSnapshot snapshot) {
+        if (!enabled) {
+            return;
+        }
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = null;
+        try {
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = encode(snapshot);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Wrote {} exchange rates for {} to {}", snapshot.size(), snapshot.getEffectiveDate(), path);
+        } catch (IOException ex) {
+            log.warn("Cannot write exchange rate snapshot {}: {}", path, ex.getMessage());
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // left for the next write to replace
+                }
+            }
+        }
+    }
+
+    static ByteBuffer encode(ExchangeRateSnapshot snapshot) {
+        List<byte[]> codes = new ArrayList<>(snapshot.size());
+        List<Rate> rates = new ArrayList<>(snapshot.size());
+        for (Map.Entry<String, Rate> rate : snapshot.getRates().entrySet()) {
+            byte[] code = rate.getKey().getBytes(StandardCharsets.US_ASCII);
+            Rate value = rate.getValue();
+            if (code.length != CURRENCY_CODE_LENGTH) {
+                log.warn("Skipping currency {} in exchange rate snapshot, code is not {} characters", rate.getKey(), CURRENCY_CODE_LENGTH);
+                continue;
+            }
+            codes.add(code);
+            rates.add(value);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + codes.size() * RECORD_LENGTH + CHECKSUM_LENGTH);
+        buffer.put(MAGIC);
+        buffer.put((byte) FORMAT_VERSION);
+        buffer.put((byte) (snapshot.isWarm() ? WARM_FLAG : 0));
+        buffer.putInt(Math.toIntExact(snapshot.getEffectiveDate().toEpochDay()));
+        buffer.putInt(codes.size());
+        for (int i = 0; i < codes.size(); i++) {
+            buffer.put(codes.get(i));
+            buffer.put((byte) rates.get(i).scale());
+            buffer.putLong(rates.get(i).unscaledValue());
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) checksum.getValue());
+        return buffer.flip();
+    }
+
+    static ExchangeRateSnapshot decode(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_LENGTH + CHECKSUM_LENGTH) {
+            throw new IllegalStateException("file is truncated");
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IllegalStateException("not an exchange rate snapshot");
+        }
+        int version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("unsupported format version " + version);
+        }
+        boolean warm = (buffer.get() & WARM_FLAG) != 0;
+        LocalDate effectiveDate = LocalDate.ofEpochDay(buffer.getInt());
+        int count = buffer.getInt();
+        if (count < 0 || buffer.limit() != HEADER_LENGTH + (long) count * RECORD_LENGTH + CHECKSUM_LENGTH) {
+            throw new IllegalStateException("file is truncated");
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.duplicate().position(0).limit(buffer.limit() - CHECKSUM_LENGTH));
+        if ((int) checksum.getValue() != buffer.getInt(buffer.limit() - CHECKSUM_LENGTH)) {
+            throw new IllegalStateException("checksum mismatch");
+        }
+        List<ExchangeRate> exchangeRates = new ArrayList<>(count);
+        byte[] code = new byte[CURRENCY_CODE_LENGTH];
+        for (int i = 0; i < count; i++) {
+            buffer.get(code);
+            int scale = buffer.get();
+            BigDecimal rate = BigDecimal.valueOf(buffer.getLong(), scale);
+            exchangeRates.add(new ExchangeRate(new String(code, StandardCharsets.US_ASCII), rate, effectiveDate));
+        }
+        ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.of(effectiveDate, exchangeRates);
+        return warm ? snapshot.asWarm() : snapshot;
+    }
+}
@@ -0,0 +1,305 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import com.ada.currencycalc.model.RateListing;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes the rate table to subscribers as server-sent events, once on subscribe and again whenever a table
+ * with a new effective date or changed rates is ingested. Every table is serialized once into a single event
+ * shared by all subscribers.
+ * <p>
+ * Every table is complete, so each subscriber only keeps the latest one it has not been sent yet and a
+ * subscriber that is slower than the publications simply skips the tables in between. Events are sent from a
+ * pool of {@code sender-threads} platform threads, as sending holds the emitter's monitor while the
+ * connection's buffers are full and would pin a virtual thread's carrier.
+ * <p>
+ * Every {@code sweep-interval} the subscribers are checked for sends in flight for longer than
+ * {@code send-timeout}. Such a subscriber has fallen behind: it is removed and its asynchronous request is
+ * completed, so the connection is closed once the container gives up the blocked write. Until then the write
+ * keeps its thread, so the pool gets an extra sender for as long as it is stuck and the other subscribers keep
+ * receiving tables. A dropped subscriber resynchronises from the current table when it subscribes again.
+ */
+@Slf4j
+@Component
+public class RateUpdateBroadcaster implements AutoCloseable {
+
+    static final String EVENT_NAME = "rates";
+
+    private final ExchangeRateStore exchangeRateStore;
+
+    private final ObjectMapper objectMapper;
+
+    private final RateMetrics rateMetrics;
+
+    private final Clock clock;
+
+    private final Duration sendTimeout;
+
+    private final Duration timeout;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicReference<Event> latest = new AtomicReference<>();
+
+    private final ThreadPoolExecutor senders;
+
+    public RateUpdateBroadcaster(ExchangeRateStore exchangeRateStore, ObjectMapper objectMapper, RateMetrics rateMetrics, Clock clock,
+                                 @Value("${api.rates-stream.send-timeout:PT10S}") Duration sendTimeout,
+                                 @Value("${api.rates-stream.sender-threads:4}") int senderThreads,
+                                 @Value("${api.rates-stream.timeout:PT30M}") Duration timeout) {
+        if (senderThreads < 1) {
+            throw new IllegalArgumentException("Rate stream sender threads must be at least 1");
+        }
+        this.exchangeRateStore = exchangeRateStore;
+        this.objectMapper = objectMapper;
+        this.rateMetrics = rateMetrics;
+        this.clock = clock;
+        this.sendTimeout = sendTimeout;
+        this.timeout = timeout;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("rate-stream-", 0).daemon().factory());
+    }
+
+    /**
+     * Opens a stream that starts with the current table, if today's tables have been loaded.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        register(emitter, asyncRequestCompletion());
+        return emitter;
+    }
+
+    /**
+     * Disconnects every subscriber whose send has been in flight for longer than the send timeout.
+     */
+    @Scheduled(fixedDelayString = "${api.rates-stream.sweep-interval:PT1S}")
+    public void sweep() {
+        Instant now = clock.instant();
+        subscribers.forEach(subscriber -> subscriber.expireSend(now));
+    }
+
+    /**
+     * Sends the table to every subscriber unless it is the one sent last.
+     *
+     * @return whether the table was sent
+     */
+    public boolean publish(ExchangeRateSnapshot snapshot) {
+        Event previous = latest.get();
+        if (previous != null && previous.isOf(snapshot)) {
+            return false;
+        }
+        Event event = eventOf(snapshot);
+        latest.set(event);
+        subscribers.forEach(subscriber -> subscriber.offer(event));
+        log.info("Published rates of {} to {} subscribers", snapshot.getEffectiveDate(), subscribers.size());
+        return true;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void close() {
+        subscribers.forEach(subscriber -> senders.execute(subscriber.emitter::complete));
+        subscribers.clear();
+        senders.shutdown();
+    }
+
+    void register(SseEmitter emitter, Runnable abort) {
+        Subscriber subscriber = new Subscriber(emitter, abort);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(failure -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        subscribers.add(subscriber);
+        Event current = currentEvent();
+        if (current != null) {
+            subscriber.offer(current);
+        }
+    }
+
+    /**
+     * Completes the current request's asynchronous processing from outside the emitter's monitor, which a
+     * blocked send holds.
+     */
+    private static Runnable asyncRequestCompletion() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return () -> {
+            };
+        }
+        HttpServletRequest request = attributes.getRequest();
+        return () -> {
+            try {
+                if (request.isAsyncStarted()) {
+                    request.getAsyncContext().complete();
+                }
+            } catch (IllegalStateException ex) {
+                log.debug("Rate stream request already completed: {}", ex.getMessage());
+            }
+        };
+    }
+
+    private void addSender() {
+        synchronized (senders) {
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() + 1);
+            senders.setCorePoolSize(senders.getCorePoolSize() + 1);
+        }
+    }
+
+    private void removeSender() {
+        synchronized (senders) {
+            senders.setCorePoolSize(senders.getCorePoolSize() - 1);
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() - 1);
+        }
+    }
+
+    private Event currentEvent() {
+        Event event = latest.get();
+        ExchangeRateSnapshot snapshot = exchangeRateStore.getSnapshot();
+        if (event != null && (event.isOf(snapshot) || !snapshot.isWarm())) {
+            return event;
+        }
+        if (!snapshot.isWarm()) {
+            return null;
+        }
+        Event current = eventOf(snapshot);
+        latest.compareAndSet(event, current);
+        return current;
+    }
+
+    private Event eventOf(ExchangeRateSnapshot snapshot) {
+        RateListing listing = RateListing.of(snapshot);
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(listing);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = SseEmitter.event()
+                .id(snapshot.getEffectiveDate().toString())
+                .name(EVENT_NAME)
+                .data(data)
+                .build();
+        return new Event(snapshot.getEffectiveDate(), snapshot.getRates(), frame);
+    }
+
+    private record Event(LocalDate effectiveDate, Map<String, Rate> rates, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+
+        private boolean isOf(ExchangeRateSnapshot snapshot) {
+            return effectiveDate.equals(snapshot.getEffectiveDate()) && rates.equals(snapshot.getRates());
+        }
+    }
+
+    /**
+     * Sending blocks while the connection's buffers are full and the emitter is locked while it does, so
+     * both sending and completing the emitter happen on a sender thread, never on the publishing one. The
+     * subscriber's own monitor guards the send in flight and whether its thread has been replaced.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Runnable abort;
+
+        private final AtomicReference<Event> pending = new AtomicReference<>();
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Instant sendingSince;
+
+        private boolean senderReplaced;
+
+        private volatile boolean dropped;
+
+        private Subscriber(SseEmitter emitter, Runnable abort) {
+            this.emitter = emitter;
+            this.abort = abort;
+        }
+
+        private void offer(Event event) {
+            pending.set(event);
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Event event;
+                while (!dropped && (event = pending.getAndSet(null)) != null) {
+                    if (!send(event)) {
+                        return;
+                    }
+                }
+                if (dropped) {
+                    emitter.complete();
+                    return;
+                }
+                draining.set(false);
+            } while (pending.get() != null && draining.compareAndSet(false, true));
+        }
+
+        private boolean send(Event event) {
+            synchronized (this) {
+                sendingSince = clock.instant();
+            }
+            try {
+                emitter.send(event.frame());
+                return true;
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Rate stream subscriber disconnected: {}", ex.getMessage());
+                subscribers.remove(this);
+                return false;
+            } finally {
+                synchronized (this) {
+                    sendingSince = null;
+                    if (senderReplaced) {
+                        senderReplaced = false;
+                        removeSender();
+                    }
+                }
+            }
+        }
+
+        private void expireSend(Instant now) {
+            synchronized (this) {
+                if (sendingSince == null || !sendingSince.plus(sendTimeout).isBefore(now) || !subscribers.remove(this)) {
+                    return;
+                }
+                log.warn("Rate stream subscriber has been sending since {}, disconnecting it", sendingSince);
+                rateMetrics.recordStreamSubscriberDropped();
+                dropped = true;
+                senderReplaced = true;
+                addSender();
+            }
+            abort.run();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ada.currencycalc.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the day's published rate tables ahead of user traffic, retrying with exponential backoff
+ * until NBP answers with today's tables, so conversions are served from memory instead of a synchronous
+ * upstream call. Until NBP publishes today's tables, and on days it publishes none, the last published
+ * tables are loaded and the warm-up keeps retrying at most every {@code maxBackoff}.
+ */
+@Slf4j
+@Service
+public class RateWarmupService {
+
+    private final ExchangeRateIngestionService exchangeRateIngestionService;
+
+    private final ExchangeRateStore exchangeRateStore;
+
+    private final TaskScheduler taskScheduler;
+
+    private final Clock clock;
+
+    private final boolean enabled;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RateWarmupService(ExchangeRateIngestionService exchangeRateIngestionService, ExchangeRateStore exchangeRateStore,
+                             TaskScheduler taskScheduler, Clock clock,
+                             @Value("${nbp.warmup.enabled:true}") boolean enabled,
+                             @Value("${nbp.warmup.initial-backoff:PT5S}") Duration initialBackoff,
+                             @Value("${nbp.warmup.max-backoff:PT10M}") Duration maxBackoff) {
+        this.exchangeRateIngestionService = exchangeRateIngestionService;
+        this.exchangeRateStore = exchangeRateStore;
+        this.taskScheduler = taskScheduler;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (!isWarm()) {
+            warmUp();
+        }
+    }
+
+    @Scheduled(cron = "${nbp.warmup.cron:0 5 0 * * *}")
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        if (running.compareAndSet(false, true)) {
+            attempt(initialBackoff);
+        } else {
+            log.info("Exchange rate warm-up already in progress");
+        }
+    }
+
+    public boolean isWarm() {
+        return exchangeRateStore.isWarm(LocalDate.now(clock));
+    }
+
+    private void attempt(Duration backoff) {
+        boolean retrying = false;
+        try {
+            LocalDate today = LocalDate.now(clock);
+            LocalDate effectiveDate = exchangeRateIngestionService.ingestTables();
+            if (effectiveDate.isBefore(today)) {
+                log.info("Exchange rate tables for {} not published yet, loaded tables of {}, retrying in {}", today, effectiveDate, backoff);
+                retry(backoff);
+                retrying = true;
+            } else {
+                log.info("Exchange rate warm-up completed for {}", today);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Exchange rate warm-up failed, retrying in {}: {}", backoff, ex.getMessage());
+            retry(backoff);
+            retrying = true;
+        } finally {
+            if (!retrying) {
+                running.set(false);
+            }
+        }
+    }
+
+    private void retry(Duration backoff) {
+        Duration nextBackoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+        taskScheduler.schedule(() -> attempt(nextBackoff), clock.instant().plus(backoff));
+    }
+}
@@ -0,0 +1,138 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists fetched rates off the request thread. Rates are queued and written by a single background
+ * thread in JDBC batches of up to {@code batchSize}, waiting at most {@code maxDelay} for a batch to fill.
+ * <p>
+ * The queue is bounded: when it stays full for {@code offerTimeout} the caller writes its rate itself,
+ * which slows producers down to the speed of the database. Whatever is still queued on shutdown is
+ * written before the application context closes.
+ */
+@Slf4j
+@Component
+public class RateWriteBehindQueue {
+
+    private final ExchangeRateRepository exchangeRateRepository;
+
+    private final BlockingQueue<ExchangeRate> pending;
+
+    private final int batchSize;
+
+    private final Duration maxDelay;
+
+    private final Duration offerTimeout;
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    public RateWriteBehindQueue(ExchangeRateRepository exchangeRateRepository,
+                                @Value("${nbp.write-behind.capacity:1000}") int capacity,
+                                @Value("${nbp.write-behind.batch-size:100}") int batchSize,
+                                @Value("${nbp.write-behind.max-delay:PT0.5S}") Duration maxDelay,
+                                @Value("${nbp.write-behind.offer-timeout:PT0.1S}") Duration offerTimeout) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.pending = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.offerTimeout = offerTimeout;
+        this.writer = Thread.ofPlatform().name("rate-write-behind").daemon().unstarted(this::writeLoop);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    public void enqueue(ExchangeRate exchangeRate) {
+        if (running) {
+            try {
+                if (pending.offer(exchangeRate, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+                log.warn("Write-behind queue is full, saving exchange rate for {} on {} synchronously",
+                        exchangeRate.getCurrencyCode(), exchangeRate.getEffectiveDate());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        exchangeRateRepository.upsert(exchangeRate);
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        writer.join(maxDelay.multipliedBy(4).toMillis());
+        List<ExchangeRate> remaining = new ArrayList<>();
+        pending.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+        log.info("Write-behind queue closed");
+    }
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                List<ExchangeRate> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<ExchangeRate> nextBatch() throws InterruptedException {
+        ExchangeRate first = pending.poll(maxDelay.toNanos(), TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return List.of();
+        }
+        List<ExchangeRate> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelay.toNanos();
+        while (batch.size() < batchSize) {
+            pending.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() == batchSize || remaining <= 0 || !running) {
+                break;
+            }
+            ExchangeRate next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void write(List<ExchangeRate> batch) {
+        try {
+            exchangeRateRepository.upsertAll(batch);
+            log.info("Saved {} exchange rates in one batch", batch.size());
+        } catch (RuntimeException ex) {
+            log.error("Failed to save {} exchange rates, they remain available in memory only: {}", batch.size(), ex.getMessage());
+        }
+    }
+}
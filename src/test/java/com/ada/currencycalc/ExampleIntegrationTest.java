@@ -1,25 +1,59 @@
 package com.ada.currencycalc;
 
+import com.ada.currencycalc.controller.RateHistoryEndpoint;
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.model.BackfillResult;
+import com.ada.currencycalc.model.ConversionRequest;
+import com.ada.currencycalc.model.CurrencyConversionResult;
 import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import com.ada.currencycalc.model.PurgeResult;
 import com.ada.currencycalc.repository.ExchangeRateRepository;
 import com.ada.currencycalc.service.CleanupService;
+import com.ada.currencycalc.service.CurrencyService;
+import com.ada.currencycalc.service.ExchangeRateStore;
 import com.ada.currencycalc.service.NbpApiConnector;
+import com.ada.currencycalc.service.RateExportService;
+import com.ada.currencycalc.service.RateWriteBehindQueue;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.aMapWithSize;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 
@@ -31,27 +65,105 @@ public class ExampleIntegrationTest extends IntegrationTestConfig {
     @Autowired
     CleanupService cleanupService;
 
+    @Autowired
+    ExchangeRateStore exchangeRateStore;
+
+    @Autowired
+    CurrencyService currencyService;
+
+    @Autowired
+    RateHistoryEndpoint rateHistoryEndpoint;
+
     @MockBean
     NbpApiConnector nbpApiConnector;
 
+    @MockBean
+    RateWriteBehindQueue rateWriteBehindQueue;
+
     @BeforeEach
     void setUp() {
+        when(nbpApiConnector.getName()).thenReturn("nbp");
+        when(nbpApiConnector.getDeadline()).thenReturn(Duration.ofSeconds(5));
         ExchangeRate exchangeRate = new ExchangeRate();
-        exchangeRate.setRate(BigDecimal.TEN);
+        exchangeRate.setRate(Rate.of(BigDecimal.TEN));
         exchangeRate.setCurrencyCode("PLN");
-        exchangeRate.setEffectiveDate(LocalDate.parse("2024-07-31"));
+        exchangeRate.setEffectiveDate(LocalDate.now().minusDays(1));
         exchangeRateRepository.save(exchangeRate);
     }
 
     @AfterEach
     void tearDown() {
         exchangeRateRepository.deleteAll();
+        exchangeRateStore.replace(ExchangeRateSnapshot.empty(LocalDate.now()));
+    }
+
+    @Test
+    void shouldRemoveOnlyRatesOutsideRetentionPeriod() {
+        exchangeRateRepository.save(new ExchangeRate("PLN", BigDecimal.ONE, LocalDate.now().minusDays(401)));
+
+        assertEquals(1, cleanupService.applyRetention().getRowsRemoved());
+
+        List<ExchangeRate> retained = exchangeRateRepository.findAll();
+        assertEquals(1, retained.size());
+        assertEquals(LocalDate.now().minusDays(1), retained.get(0).getEffectiveDate());
     }
 
     @Test
-    void shouldCleanExchangeRateTable() {
-        cleanupService.clearPreviousDayData();
-        assertTrue(exchangeRateRepository.findAll().isEmpty());
+    void shouldPurgeRatesOfDateRangeOnlyThroughRateHistoryEndpoint() throws Exception {
+        LocalDate start = LocalDate.now().minusDays(10);
+        exchangeRateRepository.upsertAll(List.of(
+                new ExchangeRate("USD", BigDecimal.valueOf(3.95), start),
+                new ExchangeRate("EUR", BigDecimal.valueOf(4.28), start.plusDays(1))));
+
+        mockMvc.perform(delete("/api/v1/rates")
+                        .queryParam("start", start.toString())
+                        .queryParam("end", start.plusDays(2).toString()))
+                .andExpect(status().isMethodNotAllowed());
+        mockMvc.perform(delete("/actuator/ratehistory")
+                        .queryParam("start", start.toString())
+                        .queryParam("end", start.plusDays(2).toString()))
+                .andExpect(status().isNotFound());
+        assertEquals(3, exchangeRateRepository.count());
+
+        PurgeResult result = rateHistoryEndpoint.purge(start.toString(), start.plusDays(2).toString());
+
+        assertEquals(2, result.getRowsRemoved());
+        assertEquals(1, result.getChunks());
+        assertEquals(1, exchangeRateRepository.count());
+        assertThrows(InvalidEndpointRequestException.class, () -> rateHistoryEndpoint.purge(start.toString(), LocalDate.now().toString()));
+    }
+
+    @Test
+    void shouldConvertIdenticallyWithFreshAndStoredRates() {
+        LocalDate today = LocalDate.now();
+        List<ExchangeRate> fetched = List.of(
+                new ExchangeRate("EUR", new BigDecimal("4.2831"), today),
+                new ExchangeRate("USD", new BigDecimal("3.9510"), today));
+        exchangeRateRepository.upsertAll(fetched);
+        exchangeRateStore.putAll(fetched, today);
+        ExchangeRateSnapshot fresh = exchangeRateStore.getSnapshot();
+        CurrencyConversionResult freshResult = currencyService.convert("EUR", new BigDecimal("1000"), "USD", today);
+
+        exchangeRateStore.reload(today);
+        CurrencyConversionResult storedResult = currencyService.convert("EUR", new BigDecimal("1000"), "USD", today);
+
+        assertEquals(fresh.getRates(), exchangeRateStore.getSnapshot().getRates());
+        assertEquals(new BigDecimal("1084.05"), freshResult.getResult());
+        assertEquals(freshResult.getResult(), storedResult.getResult());
+    }
+
+    @Test
+    void shouldUpsertRateTableInBatch() {
+        LocalDate today = LocalDate.now();
+        exchangeRateRepository.upsertAll(List.of(
+                new ExchangeRate("USD", BigDecimal.valueOf(3.95), today),
+                new ExchangeRate("EUR", BigDecimal.valueOf(4.28), today)));
+        exchangeRateRepository.upsertAll(List.of(
+                new ExchangeRate("USD", BigDecimal.valueOf(3.97), today)));
+
+        assertEquals(2, exchangeRateRepository.findByEffectiveDate(today).size());
+        assertEquals(Rate.of("3.97"),
+                exchangeRateRepository.findByCurrencyCodeAndEffectiveDate("USD", today).orElseThrow().getRate());
     }
 
     @Test
@@ -60,8 +172,8 @@ public class ExampleIntegrationTest extends IntegrationTestConfig {
         final String to = "CHF";
         final BigDecimal amount = BigDecimal.TEN;
 
-        when(nbpApiConnector.fetchAndSaveExchangeRate(from)).thenReturn(BigDecimal.valueOf(1.5));
-        when(nbpApiConnector.fetchAndSaveExchangeRate(to)).thenReturn(BigDecimal.valueOf(2.5));
+        when(nbpApiConnector.fetchRate(from)).thenReturn(Rate.of("1.5"));
+        when(nbpApiConnector.fetchRate(to)).thenReturn(Rate.of("2.5"));
 
         mockMvc.perform(get("/api/v1/currency-conversion")
                         .accept(MediaType.APPLICATION_JSON)
@@ -76,6 +188,233 @@ public class ExampleIntegrationTest extends IntegrationTestConfig {
                 .andExpect(jsonPath("$.result", equalTo(6.00)));
     }
 
+    @Test
+    void shouldConvertBatchInOrderWithPerItemErrors() throws Exception {
+        when(nbpApiConnector.fetchRate("EUR")).thenReturn(Rate.of("1.5"));
+        when(nbpApiConnector.fetchRate("CHF")).thenReturn(Rate.of("2.5"));
+
+        List<ConversionRequest> requests = List.of(
+                new ConversionRequest("EUR", "CHF", BigDecimal.TEN),
+                new ConversionRequest("EUR", " ", BigDecimal.TEN),
+                new ConversionRequest("CHF", "EUR", BigDecimal.valueOf(3)));
+
+        mockMvc.perform(post("/api/v1/currency-conversion/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", equalTo(3)))
+                .andExpect(jsonPath("$[0].result", equalTo(6.00)))
+                .andExpect(jsonPath("$[1].error", equalTo("Currency code cannot be blank, empty or null")))
+                .andExpect(jsonPath("$[2].from", equalTo("CHF")))
+                .andExpect(jsonPath("$[2].result", equalTo(5.00)));
+    }
+
+    @Test
+    void shouldConvertAtHistoricalDateAfterBackfillThroughRateHistoryEndpoint() throws Exception {
+        LocalDate start = LocalDate.now().minusDays(30);
+        LocalDate end = LocalDate.now().minusDays(20);
+        when(nbpApiConnector.fetchAndSaveExchangeRates("GBP", start, end))
+                .thenReturn(List.of(new ExchangeRate("GBP", BigDecimal.valueOf(5), start.plusDays(1))));
+        when(nbpApiConnector.fetchAndSaveExchangeRates("JPY", start, end))
+                .thenReturn(List.of(new ExchangeRate("JPY", BigDecimal.valueOf(0.025), start.plusDays(1))));
+
+        mockMvc.perform(post("/api/v1/rates/backfill")
+                        .queryParam("currencies", "GBP", "JPY")
+                        .queryParam("start", start.toString())
+                        .queryParam("end", end.toString()))
+                .andExpect(status().is4xxClientError());
+        verify(nbpApiConnector, never()).fetchAndSaveExchangeRates(any(), any(), any());
+
+        BackfillResult result = rateHistoryEndpoint.backfill(List.of("GBP", "JPY"), start.toString(), end.toString());
+
+        assertEquals(Map.of("GBP", 1, "JPY", 1), result.getRatesByCurrency());
+
+        mockMvc.perform(get("/api/v1/currency-conversion")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .queryParam("from", "GBP")
+                        .queryParam("to", "JPY")
+                        .queryParam("amount", "10")
+                        .queryParam("date", start.plusDays(3).toString()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result", equalTo(2000.00)))
+                .andExpect(jsonPath("$.date", equalTo(start.plusDays(3).toString())));
+    }
+
+    @Test
+    void shouldAnswerConditionalConversionWithNotModifiedOnceTodaysRatesAreLoaded() throws Exception {
+        LocalDate today = LocalDate.now();
+        exchangeRateStore.putAll(List.of(
+                new ExchangeRate("EUR", BigDecimal.valueOf(4.3), today),
+                new ExchangeRate("USD", BigDecimal.valueOf(4.0), today)), today);
+        exchangeRateStore.markWarm(today);
+        String eTag = "\"" + today + "\"";
+
+        mockMvc.perform(get("/api/v1/currency-conversion")
+                        .queryParam("from", "EUR")
+                        .queryParam("to", "USD")
+                        .queryParam("amount", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=")))
+                .andExpect(jsonPath("$.result", equalTo(10.75)));
+
+        mockMvc.perform(get("/api/v1/currency-conversion")
+                        .queryParam("from", "EUR")
+                        .queryParam("to", "USD")
+                        .queryParam("amount", "10")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/v1/rates")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldRejectInvalidConversionEvenWithMatchingETag() throws Exception {
+        String eTag = "\"" + LocalDate.now().minusDays(1) + "\"";
+
+        mockMvc.perform(get("/api/v1/currency-conversion")
+                        .queryParam("from", "EU")
+                        .queryParam("to", "USD")
+                        .queryParam("amount", "10")
+                        .queryParam("date", LocalDate.now().minusDays(1).toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/v1/currency-conversion")
+                        .queryParam("from", "EUR")
+                        .queryParam("to", "USD")
+                        .queryParam("amount", "-10")
+                        .queryParam("date", LocalDate.now().minusDays(1).toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", equalTo("Amount cannot be negative")));
+    }
+
+    @Test
+    void shouldNotCacheConversionBeforeTodaysRatesAreLoaded() throws Exception {
+        when(nbpApiConnector.fetchRate("EUR")).thenReturn(Rate.of("1.5"));
+        when(nbpApiConnector.fetchRate("CHF")).thenReturn(Rate.of("2.5"));
+
+        mockMvc.perform(get("/api/v1/currency-conversion")
+                        .queryParam("from", "EUR")
+                        .queryParam("to", "CHF")
+                        .queryParam("amount", "10")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + LocalDate.now() + "\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+
+        mockMvc.perform(get("/api/v1/rates"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.warm", equalTo(false)))
+                .andExpect(jsonPath("$.rates.EUR", equalTo(1.5)));
+    }
+
+    @Test
+    void shouldExportStoredRatesOfPastDateAsJson() throws Exception {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        exchangeRateRepository.save(new ExchangeRate("EUR", new BigDecimal("4.2831"), yesterday));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/rates/export")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .queryParam("date", yesterday.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.effectiveDate", equalTo(yesterday.toString())))
+                .andExpect(jsonPath("$.rates.EUR", equalTo(4.2831)))
+                .andExpect(jsonPath("$.rates.PLN", equalTo(10)));
+    }
+
+    @Test
+    void shouldExportEveryRowOfPastDateAcrossChunks() throws Exception {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        List<ExchangeRate> exchangeRates = new ArrayList<>();
+        for (int i = 0; i < RateExportService.CHUNK_SIZE; i++) {
+            String currencyCode = "X" + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26);
+            exchangeRates.add(new ExchangeRate(currencyCode, new BigDecimal("1.5"), yesterday));
+        }
+        exchangeRateRepository.saveAll(exchangeRates);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/rates/export")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .queryParam("date", yesterday.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rates", aMapWithSize(RateExportService.CHUNK_SIZE + 1)))
+                .andExpect(jsonPath("$.rates.PLN", equalTo(10)))
+                .andExpect(jsonPath("$.rates.XJV", equalTo(1.5)));
+    }
+
+    @Test
+    void shouldExportTodaysRatesAsGzippedBinary() throws Exception {
+        LocalDate today = LocalDate.now();
+        exchangeRateStore.putAll(List.of(new ExchangeRate("USD", new BigDecimal("3.9512"), today)), today);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/rates/export")
+                        .accept(RateExportService.BINARY_MEDIA_TYPE)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (DataInputStream data = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(body)))) {
+            assertEquals("CCRT", new String(data.readNBytes(4), StandardCharsets.US_ASCII));
+            assertEquals(1, data.readByte());
+            assertEquals(8, data.readByte());
+            assertEquals(today.toEpochDay(), data.readInt());
+            assertEquals("USD", new String(data.readNBytes(3), StandardCharsets.US_ASCII));
+            assertEquals(395_120_000L, data.readLong());
+            assertEquals(-1, data.read());
+        }
+    }
+
+    @Test
+    void shouldStreamTodaysRatesOnSubscribe() throws Exception {
+        LocalDate today = LocalDate.now();
+        exchangeRateStore.replace(ExchangeRateSnapshot.of(today, List.of(new ExchangeRate("USD", new BigDecimal("3.9512"), today))).asWarm());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/rates/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        for (int attempt = 0; attempt < 50 && !body.contains("data:"); attempt++) {
+            Thread.sleep(100);
+            body = result.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains("event:rates"), body);
+        assertTrue(body.contains("\"effectiveDate\":\"" + today + "\""), body);
+        assertTrue(body.contains("\"USD\":3.9512"), body);
+    }
+
+    @Test
+    void shouldReportRateSnapshotStatus() throws Exception {
+        mockMvc.perform(get("/api/v1/rates/status")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.warm", equalTo(false)));
+    }
+
     @Test
     void shouldReturnBadRequestWhenCurrenciesAreNull() throws Exception {
         final BigDecimal amount = BigDecimal.TEN;
@@ -0,0 +1,68 @@
+package com.ada.currencycalc;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal local HTTP server standing in for the NBP API in tests.
+ */
+public class NbpStubServer implements AutoCloseable {
+
+    private static final int BACKLOG = 1024;
+
+    static {
+        // the JDK server silently drops kept-alive connections beyond this limit, which the pooled client then reuses
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(BACKLOG));
+    }
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    public NbpStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), BACKLOG);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public void respond(String path, int status, String body) {
+        respondSlowly(path, Duration.ZERO, status, body);
+    }
+
+    public void respondSlowly(String path, Duration delay, int status, String body) {
+        server.createContext(path, exchange -> {
+            sleep(delay);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/api/";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ada.currencycalc.configuration;
+
+import com.ada.currencycalc.NbpStubServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebConfigTest {
+
+    private final WebConfig webConfig = new WebConfig();
+
+    private NbpStubServer stubServer;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    private CloseableHttpClient httpClient;
+
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = new NbpStubServer();
+        stubServer.respond("/api/fast/", 200, "{}");
+        stubServer.respondSlowly("/api/slow/", Duration.ofSeconds(2), 200, "{}");
+        connectionManager = webConfig.nbpConnectionManager(4, 1, Duration.ofSeconds(1), Duration.ofMillis(500));
+        httpClient = webConfig.nbpHttpClient(connectionManager, Duration.ofMillis(100), Duration.ofMillis(500),
+                Duration.ofSeconds(30), Duration.ofMinutes(1));
+        restTemplate = webConfig.restTemplate(httpClient);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        stubServer.close();
+    }
+
+    @Test
+    void shouldReuseKeptAliveConnection() {
+        restTemplate.getForObject(stubServer.baseUrl() + "fast/", String.class);
+        restTemplate.getForObject(stubServer.baseUrl() + "fast/", String.class);
+
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+    }
+
+    @Test
+    void shouldFailSlowResponseAfterReadTimeout() {
+        long start = System.nanoTime();
+
+        assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForObject(stubServer.baseUrl() + "slow/", String.class));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+    }
+
+    @Test
+    void shouldFailFastWhenRoutePoolIsExhausted() throws Exception {
+        CompletableFuture<Void> slowCall = CompletableFuture.runAsync(() -> {
+            try {
+                restTemplate.getForObject(stubServer.baseUrl() + "slow/", String.class);
+            } catch (ResourceAccessException ignored) {
+                // read timeout of the slow stub is expected
+            }
+        });
+        while (connectionManager.getTotalStats().getLeased() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForObject(stubServer.baseUrl() + "fast/", String.class));
+
+        slowCall.get(5, TimeUnit.SECONDS);
+        assertEquals(0, connectionManager.getTotalStats().getPending());
+    }
+}
@@ -0,0 +1,79 @@
+package com.ada.currencycalc.controller;
+
+import com.ada.currencycalc.service.ExchangeRateStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateCachePolicyTest {
+
+    @Mock
+    private ExchangeRateStore exchangeRateStore;
+
+    private RateCachePolicy rateCachePolicy;
+
+    private final LocalDate today = LocalDate.parse("2024-07-05");
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2024-07-05T22:05:00Z"), ZoneId.of("UTC"));
+        rateCachePolicy = new RateCachePolicy(exchangeRateStore, clock, "0 5 0 * * *", Duration.ofDays(1));
+    }
+
+    @Test
+    void shouldCacheTodaysRatesOnlyOnceWarm() {
+        when(exchangeRateStore.isWarm(today)).thenReturn(false, true);
+
+        assertEquals(Optional.empty(), rateCachePolicy.findCacheableDate(null));
+        assertEquals(Optional.of(today), rateCachePolicy.findCacheableDate(today));
+    }
+
+    @Test
+    void shouldCachePastDatesButNotFutureOnes() {
+        assertEquals(Optional.of(today.minusDays(3)), rateCachePolicy.findCacheableDate(today.minusDays(3)));
+        assertEquals(Optional.empty(), rateCachePolicy.findCacheableDate(today.plusDays(1)));
+        verifyNoInteractions(exchangeRateStore);
+    }
+
+    @Test
+    void shouldExpireTodaysRatesAtNextWarmup() {
+        ResponseEntity<String> response = rateCachePolicy.cached(today, "body");
+
+        assertEquals("max-age=7200, public", response.getHeaders().getCacheControl());
+        assertEquals("\"2024-07-05\"", response.getHeaders().getETag());
+        assertEquals(Instant.parse("2024-07-05T00:00:00Z").toEpochMilli(), response.getHeaders().getLastModified());
+    }
+
+    @Test
+    void shouldMatchIfNoneMatchListsAndWeakTags() {
+        assertTrue(rateCachePolicy.matches("\"2024-07-04\", W/\"2024-07-05\"", today));
+        assertTrue(rateCachePolicy.matches("*", today));
+        assertFalse(rateCachePolicy.matches("\"2024-07-04\"", today));
+        assertFalse(rateCachePolicy.matches(null, today));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWithValidators() {
+        ResponseEntity<Object> response = rateCachePolicy.notModified(today.minusDays(1));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("max-age=86400, public", response.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL));
+        assertNull(response.getBody());
+    }
+}
@@ -0,0 +1,78 @@
+package com.ada.currencycalc.conversion;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrossRateMatrixTest {
+
+    @Property(tries = 20_000)
+    void shouldMatchBigDecimalConversionOrDecline(@ForAll("amounts") BigDecimal amount,
+                                                  @ForAll("rates") BigDecimal fromRate,
+                                                  @ForAll("rates") BigDecimal toRate) {
+        CrossRateMatrix matrix = CrossRateMatrix.of(new BigDecimal[]{fromRate, toRate});
+
+        BigDecimal result = matrix.convert(amount, 0, 1);
+
+        if (result != null) {
+            assertEquals(FixedPointConversion.convertExact(amount, fromRate, toRate), result);
+        }
+    }
+
+    @Property(tries = 2_000)
+    void shouldMatchFullRebuildAfterIncrementalUpdate(@ForAll("rates") BigDecimal first, @ForAll("rates") BigDecimal second,
+                                                      @ForAll("rates") BigDecimal third, @ForAll("rates") BigDecimal changed,
+                                                      @ForAll("rates") BigDecimal added) {
+        CrossRateMatrix incremental = CrossRateMatrix.of(new BigDecimal[]{first, second, third})
+                .withRates(new BigDecimal[]{first, changed, third, added}, new int[]{1});
+        CrossRateMatrix rebuilt = CrossRateMatrix.of(new BigDecimal[]{first, changed, third, added});
+
+        for (int from = 0; from < 4; from++) {
+            for (int to = 0; to < 4; to++) {
+                assertEquals(rebuilt.crossRate(from, to), incremental.crossRate(from, to));
+            }
+        }
+    }
+
+    @Example
+    void shouldDeclineExactRoundingTie() {
+        CrossRateMatrix matrix = CrossRateMatrix.of(new BigDecimal[]{BigDecimal.ONE, BigDecimal.TEN});
+
+        BigDecimal result = matrix.convert(new BigDecimal("0.05"), 0, 1);
+
+        assertTrue(result == null || result.equals(new BigDecimal("0.01")));
+        assertEquals(new BigDecimal("0.00"), matrix.convert(new BigDecimal("0.0499"), 0, 1));
+    }
+
+    @Example
+    void shouldDeclineZeroTargetRate() {
+        CrossRateMatrix matrix = CrossRateMatrix.of(new BigDecimal[]{BigDecimal.ONE, BigDecimal.ZERO});
+
+        assertNull(matrix.convert(BigDecimal.TEN, 0, 1));
+        assertEquals(new BigDecimal("0.00"), matrix.convert(BigDecimal.TEN, 1, 0));
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> amounts() {
+        return Arbitraries.integers().between(-2, 6).flatMap(scale -> Arbitraries.bigDecimals()
+                .between(BigDecimal.ZERO, new BigDecimal("1000000000"))
+                .ofScale(Math.max(scale, 0))
+                .map(amount -> amount.setScale(scale, RoundingMode.DOWN)));
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> rates() {
+        return Arbitraries.integers().between(0, 9).flatMap(scale -> Arbitraries.bigDecimals()
+                .between(BigDecimal.ZERO, new BigDecimal("100000"))
+                .ofScale(scale)
+                .filter(rate -> rate.signum() > 0));
+    }
+}
@@ -0,0 +1,85 @@
+package com.ada.currencycalc.conversion;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FixedPointConversionTest {
+
+    @Property(tries = 20_000)
+    void shouldMatchBigDecimalConversion(@ForAll("amounts") BigDecimal amount,
+                                         @ForAll("rates") BigDecimal fromRate,
+                                         @ForAll("rates") BigDecimal toRate) {
+        assertEquals(FixedPointConversion.convertExact(amount, fromRate, toRate),
+                FixedPointConversion.convert(amount, fromRate, toRate));
+    }
+
+    @Property(tries = 5_000)
+    void shouldMatchBigDecimalConversionForLargeAmounts(@ForAll("largeAmounts") BigDecimal amount,
+                                                        @ForAll("rates") BigDecimal fromRate,
+                                                        @ForAll("rates") BigDecimal toRate) {
+        assertEquals(FixedPointConversion.convertExact(amount, fromRate, toRate),
+                FixedPointConversion.convert(amount, fromRate, toRate));
+    }
+
+    @Example
+    void shouldRoundHalfUp() {
+        assertEquals(new BigDecimal("0.01"),
+                FixedPointConversion.convert(new BigDecimal("0.05"), BigDecimal.ONE, BigDecimal.TEN));
+        assertEquals(new BigDecimal("0.00"),
+                FixedPointConversion.convert(new BigDecimal("0.0499"), BigDecimal.ONE, BigDecimal.TEN));
+    }
+
+    @Example
+    void shouldFallBackWhenProductOverflowsLong() {
+        BigDecimal amount = new BigDecimal("92233720368547758.07");
+
+        assertNull(FixedPointConversion.convertScaled(amount,
+                FixedPointConversion.scaleRate(new BigDecimal("4.0123")), FixedPointConversion.scaleRate(BigDecimal.ONE)));
+        assertEquals(FixedPointConversion.convertExact(amount, new BigDecimal("4.0123"), BigDecimal.ONE),
+                FixedPointConversion.convert(amount, new BigDecimal("4.0123"), BigDecimal.ONE));
+    }
+
+    @Example
+    void shouldNotScaleRateWithMoreDecimalPlacesThanRateScale() {
+        assertEquals(FixedPointConversion.NOT_SCALABLE, FixedPointConversion.scaleRate(new BigDecimal("0.123456789")));
+        assertEquals(401_230_000L, FixedPointConversion.scaleRate(new BigDecimal("4.0123")));
+    }
+
+    @Example
+    void shouldFailLikeBigDecimalForZeroTargetRate() {
+        assertThrows(ArithmeticException.class,
+                () -> FixedPointConversion.convert(BigDecimal.TEN, BigDecimal.ONE, BigDecimal.ZERO));
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> amounts() {
+        return Arbitraries.integers().between(-2, 6).flatMap(scale -> Arbitraries.bigDecimals()
+                .between(BigDecimal.ZERO, new BigDecimal("1000000000"))
+                .ofScale(Math.max(scale, 0))
+                .map(amount -> amount.setScale(scale, RoundingMode.DOWN)));
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> largeAmounts() {
+        return Arbitraries.bigDecimals()
+                .between(new BigDecimal("1000000000"), new BigDecimal("100000000000000000000000"))
+                .ofScale(2);
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> rates() {
+        return Arbitraries.integers().between(0, 9).flatMap(scale -> Arbitraries.bigDecimals()
+                .between(BigDecimal.ZERO, new BigDecimal("100000"))
+                .ofScale(scale)
+                .filter(rate -> rate.signum() > 0));
+    }
+}
@@ -0,0 +1,47 @@
+package com.ada.currencycalc.conversion;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateTest {
+
+    @Property(tries = 5_000)
+    void shouldKeepValueAndIgnoreTrailingZeros(@ForAll("rates") BigDecimal rate) {
+        Rate parsed = Rate.of(rate);
+
+        assertEquals(0, rate.compareTo(parsed.toBigDecimal()));
+        assertEquals(parsed, Rate.of(rate.setScale(Rate.MAX_SCALE)));
+        assertEquals(parsed.toBigDecimal(), Rate.of(parsed.toBigDecimal().setScale(Rate.MAX_SCALE)).toBigDecimal());
+    }
+
+    @Example
+    void shouldCarryScaleOfSignificantDigits() {
+        Rate rate = Rate.of("4.28300000");
+
+        assertEquals(4283, rate.unscaledValue());
+        assertEquals(3, rate.scale());
+        assertEquals(new BigDecimal("4.283"), rate.toBigDecimal());
+        assertEquals(new BigDecimal("100"), Rate.of("1E+2").toBigDecimal());
+    }
+
+    @Example
+    void shouldRejectRatesThatCannotBeStoredExactly() {
+        assertThrows(IllegalArgumentException.class, () -> Rate.of("0.000000001"));
+        assertThrows(IllegalArgumentException.class, () -> Rate.of("99999999999999999999"));
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> rates() {
+        return Arbitraries.bigDecimals()
+                .between(new BigDecimal("0.00000001"), new BigDecimal("9999999999"))
+                .ofScale(Rate.MAX_SCALE);
+    }
+}
@@ -0,0 +1,105 @@
+package com.ada.currencycalc.load;
+
+import com.ada.currencycalc.CurrencyCalcApplication;
+import com.ada.currencycalc.NbpStubServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares conversion throughput with platform and virtual request threads while every conversion
+ * misses the cache and waits on a slow NBP stub. Only the responses are asserted; the throughput depends
+ * on the machine, so it is logged for comparison. Run with {@code mvn test -Pload-test}.
+ */
+@Slf4j
+@Tag("load")
+public class VirtualThreadsLoadTest {
+
+    private static final int REQUESTS = 200;
+
+    private static final int TOMCAT_THREADS = 10;
+
+    private static final Duration NBP_LATENCY = Duration.ofMillis(250);
+
+    private static final String RATE_RESPONSE = """
+            {"table":"A","currency":"stub","code":"XXX","rates":[{"no":"1/A/NBP/2024","effectiveDate":"2024-07-05","mid":4.0123}]}
+            """;
+
+    private NbpStubServer stubServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = new NbpStubServer();
+        stubServer.respondSlowly("/api/exchangerates/rates/A/", NBP_LATENCY, 200, RATE_RESPONSE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.close();
+    }
+
+    @Test
+    void shouldServeAllConversionsOnPlatformAndVirtualThreads() throws Exception {
+        double platformThroughput = measureThroughput(false);
+        double virtualThroughput = measureThroughput(true);
+
+        log.info("Throughput with {} platform threads: {} req/s, with virtual threads: {} req/s",
+                TOMCAT_THREADS, String.format("%.1f", platformThroughput), String.format("%.1f", virtualThroughput));
+    }
+
+    private double measureThroughput(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CurrencyCalcApplication.class)
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--server.tomcat.accept-count=" + REQUESTS,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads,
+                        "--nbp.api.url=" + stubServer.baseUrl(),
+                        "--nbp.warmup.enabled=false",
+                        "--nbp.snapshot.enabled=false",
+                        "--nbp.http.max-connections=" + 2 * REQUESTS,
+                        "--nbp.http.max-connections-per-route=" + 2 * REQUESTS,
+                        "--logging.level.com.ada.currencycalc.service=WARN");
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            HttpClient httpClient = HttpClient.newBuilder().executor(clients).build();
+
+            long start = System.nanoTime();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                URI uri = URI.create("http://localhost:" + port + "/api/v1/currency-conversion?amount=10"
+                        + "&from=" + currencyCode(2 * i) + "&to=" + currencyCode(2 * i + 1));
+                responses.add(httpClient.sendAsync(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.join().statusCode(), response.join().body());
+            }
+            return REQUESTS / (Duration.ofNanos(System.nanoTime() - start).toMillis() / 1000.0);
+        }
+    }
+
+    private static String currencyCode(int index) {
+        return new String(new char[]{
+                (char) ('A' + index / 676 % 26),
+                (char) ('A' + index / 26 % 26),
+                (char) ('A' + index % 26)});
+    }
+}
@@ -0,0 +1,38 @@
+package com.ada.currencycalc.model;
+
+import com.ada.currencycalc.conversion.Rate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExchangeRateSnapshotTest {
+
+    private static final LocalDate DATE = LocalDate.parse("2024-07-05");
+
+    private final ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.of(DATE, List.of(
+            new ExchangeRate("USD", new BigDecimal("4.00"), DATE),
+            new ExchangeRate("EUR", new BigDecimal("4.50"), DATE)));
+
+    @Test
+    void shouldKeepOrdinalsAndUpdateCrossRatesWhenRatesChange() {
+        ExchangeRateSnapshot updated = snapshot.withRates(List.of(
+                new ExchangeRate("USD", new BigDecimal("3.00"), DATE),
+                new ExchangeRate("CHF", new BigDecimal("4.80"), DATE)));
+
+        assertEquals(snapshot.ordinalOf("EUR"), updated.ordinalOf("EUR"));
+        assertEquals(snapshot.ordinalOf("USD"), updated.ordinalOf("USD"));
+        assertEquals(2, updated.ordinalOf("CHF"));
+        assertEquals(new BigDecimal("60.00"), updated.getCrossRates().convert(new BigDecimal("90"), updated.ordinalOf("USD"), updated.ordinalOf("EUR")));
+        assertEquals(new BigDecimal("56.25"), updated.getCrossRates().convert(new BigDecimal("60"), updated.ordinalOf("EUR"), updated.ordinalOf("CHF")));
+        assertEquals(new BigDecimal("80.00"), snapshot.getCrossRates().convert(new BigDecimal("90"), snapshot.ordinalOf("USD"), snapshot.ordinalOf("EUR")));
+    }
+
+    @Test
+    void shouldReturnSameSnapshotWhenNothingChanges() {
+        assertSame(snapshot, snapshot.withRate("USD", Rate.of("4.00")));
+    }
+}
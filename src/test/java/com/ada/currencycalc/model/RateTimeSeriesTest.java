@@ -0,0 +1,78 @@
+package com.ada.currencycalc.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateTimeSeriesTest {
+
+    private static final LocalDate FRIDAY = LocalDate.parse("2024-07-05");
+    private static final LocalDate MONDAY = LocalDate.parse("2024-07-08");
+    private static final LocalDate TUESDAY = LocalDate.parse("2024-07-09");
+
+    private final RateTimeSeries series = RateTimeSeries.empty().withRates(Map.of(
+            MONDAY, new BigDecimal("3.95"),
+            FRIDAY, new BigDecimal("3.97"),
+            TUESDAY, new BigDecimal("3.93")));
+
+    @Test
+    void shouldReturnRateEffectiveOnOrBeforeDate() {
+        LocalDate earliest = LocalDate.MIN;
+
+        assertEquals(Optional.of(new BigDecimal("3.95")), series.rateOnOrBefore(MONDAY, earliest));
+        assertEquals(Optional.of(new BigDecimal("3.97")), series.rateOnOrBefore(FRIDAY.plusDays(2), earliest));
+        assertEquals(Optional.of(new BigDecimal("3.93")), series.rateOnOrBefore(TUESDAY.plusYears(1), earliest));
+        assertEquals(Optional.empty(), series.rateOnOrBefore(FRIDAY.minusDays(1), earliest));
+    }
+
+    @Test
+    void shouldKnowRateAcrossCoveredDaysOnly() {
+        assertEquals(Optional.of(new BigDecimal("3.97")), series.knownRateOn(FRIDAY));
+        assertEquals(Optional.empty(), series.knownRateOn(FRIDAY.plusDays(1)));
+
+        RateTimeSeries covered = series.withRates(Map.of(), FRIDAY, MONDAY);
+
+        assertEquals(Optional.of(new BigDecimal("3.97")), covered.knownRateOn(FRIDAY.plusDays(2)));
+        assertEquals(Optional.empty(), covered.knownRateOn(TUESDAY.plusDays(1)));
+        assertEquals(Optional.empty(), covered.withoutRatesBetween(MONDAY.minusDays(1), MONDAY.minusDays(1)).knownRateOn(FRIDAY.plusDays(2)));
+        assertEquals(Optional.empty(), covered.withoutRatesBefore(FRIDAY.plusDays(1)).knownRateOn(FRIDAY.plusDays(2)));
+    }
+
+    @Test
+    void shouldIgnoreRatesPublishedBeforeEarliestDate() {
+        assertEquals(Optional.empty(), series.rateOnOrBefore(TUESDAY.plusDays(10), TUESDAY.plusDays(1)));
+    }
+
+    @Test
+    void shouldReplaceRateForSameDateWhenMerging() {
+        RateTimeSeries merged = series.withRates(Map.of(MONDAY, new BigDecimal("4.00")));
+
+        assertEquals(3, merged.size());
+        assertEquals(Optional.of(new BigDecimal("4.00")), merged.rateOnOrBefore(MONDAY, LocalDate.MIN));
+        assertEquals(Optional.of(new BigDecimal("3.95")), series.rateOnOrBefore(MONDAY, LocalDate.MIN));
+    }
+
+    @Test
+    void shouldDropRatesBeforeCutoff() {
+        RateTimeSeries retained = series.withoutRatesBefore(MONDAY);
+
+        assertEquals(2, retained.size());
+        assertEquals(Optional.empty(), retained.rateOnOrBefore(FRIDAY, LocalDate.MIN));
+        assertSame(series, series.withoutRatesBefore(FRIDAY));
+    }
+
+    @Test
+    void shouldDropRatesWithinRange() {
+        RateTimeSeries retained = series.withoutRatesBetween(FRIDAY.plusDays(1), MONDAY);
+
+        assertEquals(2, retained.size());
+        assertEquals(Optional.of(new BigDecimal("3.97")), retained.rateOnOrBefore(MONDAY, LocalDate.MIN));
+        assertEquals(Optional.of(new BigDecimal("3.93")), retained.rateOnOrBefore(TUESDAY, LocalDate.MIN));
+        assertSame(series, series.withoutRatesBetween(FRIDAY.plusDays(1), MONDAY.minusDays(1)));
+    }
+}
@@ -0,0 +1,94 @@
+package com.ada.currencycalc.repository;
+
+import com.ada.currencycalc.IntegrationTestConfig;
+import com.ada.currencycalc.model.ExchangeRate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExchangeRateRepositoryTest extends IntegrationTestConfig {
+
+    @Autowired
+    ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        exchangeRateRepository.deleteAll();
+    }
+
+    @Test
+    void shouldLookUpRateThroughUniqueIndex() {
+        String plan = explain("SELECT * FROM exchange_rate WHERE currency_code = 'USD' AND effective_date = DATE '2024-07-05'");
+
+        assertTrue(plan.contains("UK_EXCHANGE_RATE_CURRENCY_CODE_EFFECTIVE_DATE"), plan);
+    }
+
+    @Test
+    void shouldDeleteByEffectiveDateThroughIndex() {
+        String plan = explain("DELETE FROM exchange_rate WHERE effective_date = DATE '2024-07-05'");
+
+        assertTrue(plan.contains("IDX_EXCHANGE_RATE_EFFECTIVE_DATE"), plan);
+    }
+
+    @Test
+    void shouldDeleteAtMostOneChunkWithinRange() {
+        LocalDate start = LocalDate.parse("2024-07-01");
+        exchangeRateRepository.upsertAll(List.of(
+                new ExchangeRate("USD", BigDecimal.valueOf(3.95), start.minusDays(1)),
+                new ExchangeRate("USD", BigDecimal.valueOf(3.96), start),
+                new ExchangeRate("EUR", BigDecimal.valueOf(4.28), start),
+                new ExchangeRate("USD", BigDecimal.valueOf(3.97), start.plusDays(1)),
+                new ExchangeRate("USD", BigDecimal.valueOf(3.98), start.plusDays(2))));
+
+        assertEquals(2, exchangeRateRepository.deleteChunk(start, start.plusDays(1), 2));
+        assertEquals(1, exchangeRateRepository.deleteChunk(start, start.plusDays(1), 2));
+        assertEquals(0, exchangeRateRepository.deleteChunk(start, start.plusDays(1), 2));
+
+        assertEquals(Set.of(start.minusDays(1), start.plusDays(2)), Set.copyOf(
+                exchangeRateRepository.findAll().stream().map(ExchangeRate::getEffectiveDate).toList()));
+        assertEquals(start.minusDays(1), exchangeRateRepository.findEarliestEffectiveDate().orElseThrow());
+    }
+
+    @Test
+    void shouldRejectDuplicateRateForSameDay() {
+        LocalDate today = LocalDate.parse("2024-07-05");
+        exchangeRateRepository.saveAndFlush(new ExchangeRate("USD", BigDecimal.valueOf(3.95), today));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> exchangeRateRepository.saveAndFlush(new ExchangeRate("USD", BigDecimal.valueOf(3.97), today)));
+    }
+
+    @Test
+    void shouldDrawIdsForJpaAndJdbcWritesFromSameSequence() {
+        LocalDate today = LocalDate.parse("2024-07-05");
+        exchangeRateRepository.saveAllAndFlush(List.of(
+                new ExchangeRate("USD", BigDecimal.valueOf(3.95), today),
+                new ExchangeRate("EUR", BigDecimal.valueOf(4.28), today)));
+        exchangeRateRepository.upsertAll(List.of(
+                new ExchangeRate("CHF", BigDecimal.valueOf(4.41), today),
+                new ExchangeRate("GBP", BigDecimal.valueOf(5.05), today)));
+        exchangeRateRepository.saveAndFlush(new ExchangeRate("JPY", BigDecimal.valueOf(0.025), today));
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM exchange_rate", Long.class);
+        assertEquals(5, ids.size());
+        assertEquals(5, Set.copyOf(ids).size());
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
@@ -1,18 +1,30 @@
 package com.ada.currencycalc.service;
 
+import com.ada.currencycalc.model.PurgeResult;
 import com.ada.currencycalc.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.Period;
 import java.time.ZoneId;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,24 +34,62 @@ public class CleanupServiceTest {
     private ExchangeRateRepository exchangeRateRepository;
 
     @Mock
-    private Clock clock;
+    private RateHistoryStore rateHistoryStore;
 
-    @InjectMocks
     private CleanupService cleanupService;
 
+    @BeforeEach
+    void setUp() {
+        Instant instant = Instant.parse("2024-07-15T10:00:00Z");
+        cleanupService = new CleanupService(exchangeRateRepository, rateHistoryStore, Clock.fixed(instant, ZoneId.of("UTC")),
+                new RateMetrics(new SimpleMeterRegistry()), Period.ofDays(30), 100, Duration.ZERO);
+    }
+
     @Test
-    void shouldClearPreviousDayData() {
+    void shouldRemoveRatesOlderThanRetentionPeriodInChunks() {
+        LocalDate cutoff = LocalDate.parse("2024-06-15");
+        LocalDate earliest = LocalDate.parse("2024-01-02");
+        when(exchangeRateRepository.findEarliestEffectiveDate()).thenReturn(Optional.of(earliest));
+        when(exchangeRateRepository.deleteChunk(earliest, cutoff.minusDays(1), 100)).thenReturn(100, 100, 42);
 
-        ZoneId zoneId = ZoneId.of("UTC");
-        Instant instant = Instant.parse("2024-07-15T10:00:00Z");
-        when(clock.getZone()).thenReturn(zoneId);
-        when(clock.instant()).thenReturn(instant);
+        PurgeResult result = cleanupService.applyRetention();
 
-        LocalDate today = LocalDate.ofInstant(instant, zoneId);
-        LocalDate yesterday = today.minusDays(1);
+        assertEquals(242, result.getRowsRemoved());
+        assertEquals(3, result.getChunks());
+        verify(exchangeRateRepository, times(3)).deleteChunk(earliest, cutoff.minusDays(1), 100);
+        verify(rateHistoryStore).evictBefore(cutoff);
+    }
+
+    @Test
+    void shouldSkipDeletesWhenNothingIsOutsideRetentionPeriod() {
+        LocalDate cutoff = LocalDate.parse("2024-06-15");
+        when(exchangeRateRepository.findEarliestEffectiveDate()).thenReturn(Optional.of(cutoff));
 
-        cleanupService.clearPreviousDayData();
+        assertEquals(0, cleanupService.applyRetention().getRowsRemoved());
 
-        verify(exchangeRateRepository).deleteByEffectiveDate(yesterday);
+        verify(exchangeRateRepository, never()).deleteChunk(any(), any(), anyInt());
+        verify(rateHistoryStore).evictBefore(cutoff);
+    }
+
+    @Test
+    void shouldPurgeDateRangeFromDatabaseAndHistory() {
+        LocalDate start = LocalDate.parse("2024-03-01");
+        LocalDate end = LocalDate.parse("2024-03-31");
+        when(exchangeRateRepository.deleteChunk(start, end, 100)).thenReturn(7);
+
+        PurgeResult result = cleanupService.purge(start, end);
+
+        assertEquals(7, result.getRowsRemoved());
+        assertEquals(1, result.getChunks());
+        verify(rateHistoryStore).evictBetween(start, end);
+    }
+
+    @Test
+    void shouldRejectPurgeOfTodayOrInvertedRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> cleanupService.purge(LocalDate.parse("2024-07-01"), LocalDate.parse("2024-07-15")));
+        assertThrows(IllegalArgumentException.class,
+                () -> cleanupService.purge(LocalDate.parse("2024-07-02"), LocalDate.parse("2024-07-01")));
+        verifyNoInteractions(exchangeRateRepository, rateHistoryStore);
     }
 }
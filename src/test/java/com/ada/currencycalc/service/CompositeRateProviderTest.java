@@ -0,0 +1,180 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.exceptions.ExternalApiException;
+import com.ada.currencycalc.exceptions.UpstreamUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompositeRateProviderTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final RateLookupExecutor rateLookupExecutor = new RateLookupExecutor(false, 4);
+
+    private CompositeRateProvider compositeRateProvider;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        rateLookupExecutor.close();
+    }
+
+    @Test
+    void shouldReturnFirstRateWithoutWaitingForSlowerSources() {
+        compositeRateProvider = composite(CompositeRateProvider.Mode.FIRST,
+                new FakeRateProvider("slow", Rate.of("4.30"), release),
+                new FakeRateProvider("fast", Rate.of("4.28"), null));
+
+        assertEquals(Rate.of("4.28"), compositeRateProvider.fetchRate("EUR"));
+        assertEquals(1, requests("fast", "success"));
+        assertEquals(0, requests("slow", "success"));
+    }
+
+    @Test
+    void shouldSkipFailingSourceInFirstMode() {
+        compositeRateProvider = composite(CompositeRateProvider.Mode.FIRST,
+                new FakeRateProvider("broken", new IllegalStateException("feed down")),
+                new FakeRateProvider("nbp", Rate.of("4.28"), null));
+
+        assertEquals(Rate.of("4.28"), compositeRateProvider.fetchRate("EUR"));
+    }
+
+    @Test
+    void shouldFailWithFirstSourceErrorWhenAllSourcesFail() {
+        compositeRateProvider = composite(CompositeRateProvider.Mode.FIRST,
+                new FakeRateProvider("nbp", new ExternalApiException("404 Not Found")),
+                new FakeRateProvider("feed", new IllegalStateException("feed down")));
+
+        ExternalApiException exception = assertThrows(ExternalApiException.class, () -> compositeRateProvider.fetchRate("XYZ"));
+
+        assertEquals("404 Not Found", exception.getMessage());
+        assertEquals(1, requests("nbp", "not_found"));
+    }
+
+    @Test
+    void shouldCountSourcePastDeadlineAsUnavailable() {
+        compositeRateProvider = composite(CompositeRateProvider.Mode.FIRST,
+                new FakeRateProvider("slow", Rate.of("4.28"), release),
+                new FakeRateProvider("slower", Rate.of("4.28"), release));
+
+        assertThrows(UpstreamUnavailableException.class, () -> compositeRateProvider.fetchRate("EUR"));
+        assertEquals(1, requests("slow", "unavailable"));
+        assertEquals(1, requests("slower", "unavailable"));
+    }
+
+    @Test
+    void shouldBoundSingleSourceByItsDeadline() {
+        compositeRateProvider = composite(CompositeRateProvider.Mode.FIRST,
+                new FakeRateProvider("slow", Rate.of("4.28"), release));
+
+        assertThrows(UpstreamUnavailableException.class, () -> compositeRateProvider.fetchRate("EUR"));
+        assertEquals(1, requests("slow", "unavailable"));
+    }
+
+    @Test
+    void shouldInterruptSourcePastDeadlineSoItsThreadServesNextLookup() {
+        try (RateLookupExecutor singleThread = new RateLookupExecutor(false, 1)) {
+            CompositeRateProvider hanging = new CompositeRateProvider(List.of(new FakeRateProvider("hanging", Rate.of("4.30"), release)),
+                    new RateMetrics(meterRegistry), singleThread, CompositeRateProvider.Mode.FIRST, 2);
+            CompositeRateProvider answering = new CompositeRateProvider(List.of(new FakeRateProvider("nbp", Rate.of("4.28"), null)),
+                    new RateMetrics(meterRegistry), singleThread, CompositeRateProvider.Mode.FIRST, 2);
+
+            assertThrows(UpstreamUnavailableException.class, () -> hanging.fetchRate("EUR"));
+            assertThrows(UpstreamUnavailableException.class, () -> hanging.fetchRate("USD"));
+
+            assertEquals(Rate.of("4.28"), answering.fetchRate("EUR"));
+        }
+    }
+
+    @Test
+    void shouldReturnRateOnceQuorumAgrees() {
+        compositeRateProvider = composite(CompositeRateProvider.Mode.QUORUM,
+                new FakeRateProvider("nbp", Rate.of("4.2831"), null),
+                new FakeRateProvider("feed", Rate.of("4.28310"), null),
+                new FakeRateProvider("slow", Rate.of("4.2900"), release));
+
+        assertEquals(Rate.of("4.2831"), compositeRateProvider.fetchRate("EUR"));
+    }
+
+    @Test
+    void shouldRejectRateWhenSourcesDisagree() {
+        compositeRateProvider = composite(CompositeRateProvider.Mode.QUORUM,
+                new FakeRateProvider("nbp", Rate.of("4.2831"), null),
+                new FakeRateProvider("feed", Rate.of("4.2900"), null));
+
+        assertThrows(ExternalApiException.class, () -> compositeRateProvider.fetchRate("EUR"));
+    }
+
+    private CompositeRateProvider composite(CompositeRateProvider.Mode mode, RateProvider... sources) {
+        return new CompositeRateProvider(List.of(sources), new RateMetrics(meterRegistry), rateLookupExecutor, mode, 2);
+    }
+
+    private long requests(String source, String outcome) {
+        var timer = meterRegistry.find("currency.rate-provider.requests").tag("source", source).tag("outcome", outcome).timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    /**
+     * Answers with a fixed rate or failure, optionally only once {@code release} opens.
+     */
+    private static final class FakeRateProvider implements RateProvider {
+
+        private final String name;
+
+        private final Rate rate;
+
+        private final RuntimeException failure;
+
+        private final CountDownLatch release;
+
+        private FakeRateProvider(String name, Rate rate, CountDownLatch release) {
+            this.name = name;
+            this.rate = rate;
+            this.failure = null;
+            this.release = release;
+        }
+
+        private FakeRateProvider(String name, RuntimeException failure) {
+            this.name = name;
+            this.rate = null;
+            this.failure = failure;
+            this.release = null;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Duration getDeadline() {
+            return Duration.ofMillis(200);
+        }
+
+        @Override
+        public Rate fetchRate(String currencyCode) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return rate;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CurrencyRegistryTest {
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Test
+    void shouldResolveKnownCodesToSameCanonicalInstance() {
+        CurrencyRegistry registry = new CurrencyRegistry(exchangeRateRepository, new BaseCurrency("PLN"));
+        registry.register(List.of("USD"));
+
+        assertSame(registry.resolve("USD"), registry.resolve("usd"));
+        assertSame(registry.resolve("USD"), registry.resolve("uSd"));
+        assertSame(registry.resolve("USD"), registry.resolveHistorical("usd"));
+    }
+
+    @Test
+    void shouldPassWellFormedUnknownCodesUntilComplete() {
+        CurrencyRegistry registry = new CurrencyRegistry(exchangeRateRepository, new BaseCurrency("PLN"));
+
+        assertEquals("GBP", registry.resolve("gbp"));
+
+        registry.registerPublished(List.of("USD"));
+
+        assertTrue(registry.isComplete());
+        assertThrows(IllegalArgumentException.class, () -> registry.resolve("gbp"));
+        assertEquals("PLN", registry.resolve("pln"));
+    }
+
+    @Test
+    void shouldPassWellFormedUnpublishedCodesForPastDatesOnceComplete() {
+        CurrencyRegistry registry = new CurrencyRegistry(exchangeRateRepository, new BaseCurrency("PLN"));
+        registry.registerPublished(List.of("USD"));
+
+        assertEquals("HRK", registry.resolveHistorical("hrk"));
+        assertThrows(IllegalArgumentException.class, () -> registry.resolveHistorical("hr"));
+        assertThrows(IllegalArgumentException.class, () -> registry.resolveHistorical(" "));
+    }
+
+    @Test
+    void shouldRejectMalformedCodes() {
+        CurrencyRegistry registry = new CurrencyRegistry(exchangeRateRepository, new BaseCurrency("PLN"));
+
+        for (String code : new String[]{"US", "USDX", "U5D", "US ", "ÜSD", "@SD", "[SD", "`SD", "{SD"}) {
+            assertEquals(-1, CurrencyRegistry.keyOf(code), code);
+            assertThrows(IllegalArgumentException.class, () -> registry.resolve(code), code);
+        }
+        assertThrows(IllegalArgumentException.class, () -> registry.resolve(" "));
+        assertThrows(IllegalArgumentException.class, () -> registry.resolve(null));
+    }
+
+    @Test
+    void shouldRegisterStoredCodesWithoutCompletingRegistry() {
+        when(exchangeRateRepository.findDistinctCurrencyCodes()).thenReturn(List.of("USD", "EUR"));
+        CurrencyRegistry registry = new CurrencyRegistry(exchangeRateRepository, new BaseCurrency("PLN"));
+
+        registry.loadStoredCodes();
+
+        assertSame(registry.resolve("USD"), registry.resolve("usd"));
+        assertFalse(registry.isComplete());
+    }
+}
@@ -1,13 +1,24 @@
 package com.ada.currencycalc.service;
 
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.exceptions.ExternalApiException;
+import com.ada.currencycalc.model.BatchConversionResult;
+import com.ada.currencycalc.model.ConversionRequest;
+import com.ada.currencycalc.model.CurrencyConversionResult;
 import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
 import com.ada.currencycalc.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
@@ -16,16 +27,24 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
-
 @ExtendWith(MockitoExtension.class)
 public class CurrencyServiceTest {
     @Mock
-    ExchangeRateRepository exchangeRateRepository;
+    ExchangeRateStore exchangeRateStore;
+
+    @Mock
+    RateProvider rateProvider;
+
+    @Mock
+    RateWriteBehindQueue rateWriteBehindQueue;
 
     @Mock
     Clock clock;
@@ -33,36 +52,160 @@ public class CurrencyServiceTest {
     @Mock
     RestTemplate restTemplate;
 
+    @Spy
+    RateLookupExecutor rateLookupExecutor = new RateLookupExecutor(false, 1);
+
+    @Mock
+    RateHistoryService rateHistoryService;
+
+    @Spy
+    RateMetrics rateMetrics = new RateMetrics(new SimpleMeterRegistry());
+
+    @Mock
+    TaskScheduler taskScheduler;
+
+    @Spy
+    BaseCurrency baseCurrency = new BaseCurrency("PLN");
+
+    @Spy
+    CurrencyRegistry currencyRegistry = new CurrencyRegistry(mock(ExchangeRateRepository.class), baseCurrency);
+
     @InjectMocks
     CurrencyService currencyService;
 
-    private LocalDate today;
+    private static final Instant NOW = Instant.parse("2024-07-05T10:00:00Z");
+
+    private final LocalDate today = LocalDate.parse("2024-07-05");
 
     @Value("${nbp.api.url}")
     private String nbpApiUrl;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(clock.getZone()).thenReturn(ZoneId.of("UTC"));
+        lenient().when(clock.instant()).thenReturn(NOW);
+    }
+
     @Test
     void shouldConvertCurrency() {
         String from = "USD";
         String to = "EUR";
         BigDecimal amount = BigDecimal.valueOf(100);
-        ZoneId zoneId = ZoneId.of("UTC");
-        Instant instant = Instant.parse("2024-07-05T10:00:00Z");
-
-        when(clock.getZone()).thenReturn(zoneId);
-        when(clock.instant()).thenReturn(instant);
-
-        today = LocalDate.ofInstant(instant, zoneId);
 
-        when(exchangeRateRepository.findByCurrencyCodeAndEffectiveDate(from, today))
-                .thenReturn(Optional.of(new ExchangeRate(from, BigDecimal.valueOf(1.2), today)));
-        when(exchangeRateRepository.findByCurrencyCodeAndEffectiveDate(to, today))
-                .thenReturn(Optional.of(new ExchangeRate(to, BigDecimal.valueOf(0.8), today)));
+        when(exchangeRateStore.findCurrentRate(from, today))
+                .thenReturn(Optional.of(BigDecimal.valueOf(1.2)));
+        when(exchangeRateStore.findCurrentRate(to, today))
+                .thenReturn(Optional.of(BigDecimal.valueOf(0.8)));
 
         BigDecimal result = currencyService.convertCurrency(from, amount, to);
         assertEquals(BigDecimal.valueOf(150.0).setScale(2, RoundingMode.HALF_UP), result);
     }
 
+    @Test
+    void shouldConvertWithHistoricalRatesWhenDateIsInThePast() {
+        LocalDate date = LocalDate.parse("2024-03-01");
+        when(rateHistoryService.getExchangeRate("USD", date)).thenReturn(new BigDecimal("4.0"));
+        when(rateHistoryService.getExchangeRate("EUR", date)).thenReturn(new BigDecimal("4.5"));
+
+        CurrencyConversionResult result = currencyService.convert("USD", BigDecimal.valueOf(90), "EUR", date);
+
+        assertEquals(new BigDecimal("80.00"), result.getResult());
+        assertFalse(result.isStale());
+        verifyNoInteractions(exchangeRateStore, rateProvider);
+    }
+
+    @Test
+    void shouldServeLastKnownRateAndRefreshInBackgroundWhenTodaysRateIsMissing() {
+        when(exchangeRateStore.findCurrentRate("USD", today)).thenReturn(Optional.empty());
+        when(exchangeRateStore.findCurrentRate("EUR", today)).thenReturn(Optional.of(new BigDecimal("4.5")));
+        when(rateHistoryService.findLastKnownRate("USD", today)).thenReturn(Optional.of(new BigDecimal("4.0")));
+        when(rateProvider.fetchRate("USD")).thenReturn(Rate.of("4.1"));
+
+        CurrencyConversionResult first = currencyService.convert("USD", BigDecimal.valueOf(90), "EUR", null);
+        CurrencyConversionResult second = currencyService.convert("USD", BigDecimal.valueOf(90), "EUR", null);
+
+        assertEquals(new BigDecimal("80.00"), first.getResult());
+        assertTrue(first.isStale());
+        assertTrue(second.isStale());
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, times(1)).schedule(refresh.capture(), eq(NOW));
+        verifyNoInteractions(rateProvider);
+
+        refresh.getValue().run();
+
+        verify(exchangeRateStore).put("USD", Rate.of("4.1"), today);
+        verify(rateHistoryService).record("USD", Rate.of("4.1"), today);
+        verify(rateWriteBehindQueue).enqueue(argThat(exchangeRate -> "USD".equals(exchangeRate.getCurrencyCode())
+                && Rate.of("4.1").equals(exchangeRate.getRate()) && today.equals(exchangeRate.getEffectiveDate())));
+    }
+
+    @Test
+    void shouldMatchLowerCaseCodesToCanonicalCodes() {
+        currencyRegistry.registerPublished(List.of("USD", "EUR"));
+        when(exchangeRateStore.findCurrentRate("USD", today)).thenReturn(Optional.of(new BigDecimal("4.0")));
+        when(exchangeRateStore.findCurrentRate("EUR", today)).thenReturn(Optional.of(new BigDecimal("4.5")));
+
+        CurrencyConversionResult result = currencyService.convert("usd", BigDecimal.valueOf(90), "Eur", null);
+
+        assertEquals("USD", result.getFrom());
+        assertEquals("EUR", result.getTo());
+        assertEquals(new BigDecimal("80.00"), result.getResult());
+    }
+
+    @Test
+    void shouldConvertCurrencyToItselfWithoutLookingUpRates() {
+        BigDecimal result = currencyService.convertCurrency("EUR", new BigDecimal("12.345"), "eur");
+
+        assertEquals(new BigDecimal("12.35"), result);
+        verifyNoInteractions(exchangeRateStore, rateProvider, rateHistoryService);
+    }
+
+    @Test
+    void shouldUseImplicitRateOfBaseCurrency() {
+        ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.empty(today).withRate("USD", Rate.of("4.0"));
+        when(exchangeRateStore.findCurrentSnapshot(today)).thenReturn(Optional.of(snapshot), Optional.of(snapshot), Optional.empty());
+        when(exchangeRateStore.findCurrentRate("USD", today)).thenReturn(Optional.of(new BigDecimal("4.0")));
+
+        assertEquals(new BigDecimal("40.00"), currencyService.convertCurrency("USD", BigDecimal.TEN, "PLN"));
+        assertEquals(new BigDecimal("2.50"), currencyService.convertCurrency("PLN", BigDecimal.TEN, "USD"));
+        assertEquals(new BigDecimal("2.50"), currencyService.convertCurrency("PLN", BigDecimal.TEN, "USD"));
+
+        verify(exchangeRateStore, never()).findCurrentRate(eq("PLN"), any());
+        verifyNoInteractions(rateProvider, rateHistoryService);
+    }
+
+    @Test
+    void shouldRejectUnknownCurrencyLocallyOncePublishedCodesAreKnown() {
+        currencyRegistry.registerPublished(List.of("USD", "EUR"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> currencyService.convertCurrency("USD", BigDecimal.TEN, "XYZ"));
+
+        assertEquals("Unknown currency code: XYZ", exception.getMessage());
+        verifyNoInteractions(exchangeRateStore, rateProvider);
+    }
+
+    @Test
+    void shouldConvertAtPastDateWithCurrencyNoLongerPublished() {
+        currencyRegistry.registerPublished(List.of("USD", "EUR"));
+        LocalDate date = LocalDate.parse("2022-12-30");
+        when(rateHistoryService.getExchangeRate("HRK", date)).thenReturn(new BigDecimal("0.6234"));
+        when(rateHistoryService.getExchangeRate("EUR", date)).thenReturn(new BigDecimal("4.6899"));
+
+        CurrencyConversionResult result = currencyService.convert("hrk", BigDecimal.valueOf(100), "EUR", date);
+
+        assertEquals("HRK", result.getFrom());
+        assertEquals(new BigDecimal("13.29"), result.getResult());
+        assertThrows(IllegalArgumentException.class, () -> currencyService.convert("HRK", BigDecimal.TEN, "EUR", null));
+    }
+
+    @Test
+    void shouldRejectConversionAtFutureDate() {
+        assertThrows(IllegalArgumentException.class,
+                () -> currencyService.convert("USD", BigDecimal.TEN, "EUR", LocalDate.parse("2024-07-06")));
+        verifyNoInteractions(rateHistoryService);
+    }
+
 //    @Test
 //    void shouldConvertSameCurrency() {
 //        String currency = "USD";
@@ -97,40 +240,128 @@ public class CurrencyServiceTest {
         String from = "USD";
         String to = "EUR";
         BigDecimal amount = BigDecimal.valueOf(100);
-        ZoneId zoneId = ZoneId.of("UTC");
-        Instant instant = Instant.parse("2024-07-05T10:00:00Z");
 
-        when(clock.getZone()).thenReturn(zoneId);
-        when(clock.instant()).thenReturn(instant);
+        when(exchangeRateStore.findCurrentRate(from, today))
+                .thenReturn(Optional.of(BigDecimal.valueOf(1.5)));
+        when(exchangeRateStore.findCurrentRate(to, today))
+                .thenReturn(Optional.of(BigDecimal.valueOf(0.9)));
 
-        today = LocalDate.ofInstant(instant, zoneId);
+        BigDecimal result = currencyService.convertCurrency(from, amount, to);
+        assertEquals(BigDecimal.valueOf(166.67).setScale(2, RoundingMode.HALF_UP), result);
+    }
 
-        when(exchangeRateRepository.findByCurrencyCodeAndEffectiveDate(from, today))
-                .thenReturn(Optional.of(new ExchangeRate(from, BigDecimal.valueOf(1.5), today)));
-        when(exchangeRateRepository.findByCurrencyCodeAndEffectiveDate(to, today))
-                .thenReturn(Optional.of(new ExchangeRate(to, BigDecimal.valueOf(0.9), today)));
+    @Test
+    void shouldConvertWithScaledRatesFromSnapshot() {
+        String from = "USD";
+        String to = "EUR";
+        BigDecimal amount = new BigDecimal("123.45");
+
+        ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.of(today, List.of(
+                new ExchangeRate(from, new BigDecimal("3.9536"), today),
+                new ExchangeRate(to, new BigDecimal("4.2836"), today)));
+        when(exchangeRateStore.findCurrentSnapshot(today)).thenReturn(Optional.of(snapshot));
 
         BigDecimal result = currencyService.convertCurrency(from, amount, to);
-        assertEquals(BigDecimal.valueOf(166.67).setScale(2, RoundingMode.HALF_UP), result);
+
+        assertEquals(amount.multiply(new BigDecimal("3.9536")).divide(new BigDecimal("4.2836"), 2, RoundingMode.HALF_UP), result);
+        verify(exchangeRateStore, never()).findCurrentRate(anyString(), any());
+        verifyNoInteractions(rateProvider);
     }
 
     @Test
-    void shouldConvertCurrencyWithZeroAmount() {
+    void shouldFetchAndStoreRateWhenMissingInMemory() {
         String from = "USD";
         String to = "EUR";
-        BigDecimal amount = BigDecimal.ZERO;
-        ZoneId zoneId = ZoneId.of("UTC");
-        Instant instant = Instant.parse("2024-07-05T10:00:00Z");
+        BigDecimal amount = BigDecimal.valueOf(100);
+
+        when(exchangeRateStore.findCurrentRate(from, today)).thenReturn(Optional.empty());
+        when(rateProvider.fetchRate(from)).thenReturn(Rate.of("1.2"));
+        when(exchangeRateStore.findCurrentRate(to, today)).thenReturn(Optional.of(BigDecimal.valueOf(0.8)));
+
+        BigDecimal result = currencyService.convertCurrency(from, amount, to);
+
+        assertEquals(BigDecimal.valueOf(150.0).setScale(2, RoundingMode.HALF_UP), result);
+        verify(exchangeRateStore).put(from, Rate.of("1.2"), today);
+        verify(rateProvider, never()).fetchRate(to);
+    }
+
+    @Test
+    void shouldFetchBothRatesInParallelOnVirtualThreads() {
+        String from = "USD";
+        String to = "EUR";
+        BigDecimal amount = BigDecimal.valueOf(100);
+
+        CyclicBarrier bothFetchesStarted = new CyclicBarrier(2);
+        when(exchangeRateStore.findCurrentRate(anyString(), eq(today))).thenReturn(Optional.empty());
+        when(rateProvider.fetchRate(from)).thenAnswer(invocation -> {
+            bothFetchesStarted.await(5, TimeUnit.SECONDS);
+            return Rate.of("1.2");
+        });
+        when(rateProvider.fetchRate(to)).thenAnswer(invocation -> {
+            bothFetchesStarted.await(5, TimeUnit.SECONDS);
+            return Rate.of("0.8");
+        });
+
+        try (RateLookupExecutor virtualThreads = new RateLookupExecutor(true, 1)) {
+            CurrencyService service = new CurrencyService(exchangeRateStore, clock, rateProvider, rateWriteBehindQueue, virtualThreads, rateMetrics, rateHistoryService,
+                    taskScheduler, currencyRegistry, baseCurrency);
+
+            BigDecimal result = service.convertCurrency(from, amount, to);
+
+            assertEquals(BigDecimal.valueOf(150.0).setScale(2, RoundingMode.HALF_UP), result);
+        }
+    }
 
-        when(clock.getZone()).thenReturn(zoneId);
-        when(clock.instant()).thenReturn(instant);
+    @Test
+    void shouldRejectCurrencyMissingFromWarmSnapshotWithoutCallingApi() {
+        String from = "XYZ";
+        String to = "EUR";
+        BigDecimal amount = BigDecimal.valueOf(100);
 
-        today = LocalDate.ofInstant(instant, zoneId);
+        when(exchangeRateStore.findCurrentRate(from, today)).thenReturn(Optional.empty());
+        when(exchangeRateStore.isCurrentWarm(today)).thenReturn(true);
+
+        assertThrows(ExternalApiException.class, () -> currencyService.convertCurrency(from, amount, to));
+        verifyNoInteractions(rateProvider);
+    }
+
+    @Test
+    void shouldConvertBatchResolvingEachRateOnce() {
+        when(exchangeRateStore.findCurrentRate("USD", today)).thenReturn(Optional.of(BigDecimal.valueOf(1.2)));
+        when(exchangeRateStore.findCurrentRate("EUR", today)).thenReturn(Optional.of(BigDecimal.valueOf(0.8)));
+        when(exchangeRateStore.findCurrentRate("XYZ", today)).thenReturn(Optional.empty());
+        when(exchangeRateStore.isCurrentWarm(today)).thenReturn(true);
+
+        List<BatchConversionResult> results = currencyService.convertCurrencies(List.of(
+                new ConversionRequest("USD", "EUR", BigDecimal.valueOf(100)),
+                new ConversionRequest("EUR", "USD", BigDecimal.valueOf(150)),
+                new ConversionRequest("USD", "EUR", BigDecimal.valueOf(-1)),
+                new ConversionRequest("XYZ", "EUR", BigDecimal.TEN),
+                new ConversionRequest("USD", "XYZ", BigDecimal.TEN)));
+
+        assertEquals(5, results.size());
+        assertEquals(BigDecimal.valueOf(150.0).setScale(2, RoundingMode.HALF_UP), results.get(0).getResult());
+        assertEquals(BigDecimal.valueOf(100.0).setScale(2, RoundingMode.HALF_UP), results.get(1).getResult());
+        assertNull(results.get(0).getError());
+        assertEquals("Amount cannot be negative", results.get(2).getError());
+        assertEquals("Exchange rate not published for currency: XYZ", results.get(3).getError());
+        assertEquals("Exchange rate not published for currency: XYZ", results.get(4).getError());
+        assertNull(results.get(4).getResult());
+        verify(exchangeRateStore, times(1)).findCurrentRate("USD", today);
+        verify(exchangeRateStore, times(1)).findCurrentRate("EUR", today);
+        verify(exchangeRateStore, times(1)).findCurrentRate("XYZ", today);
+    }
+
+    @Test
+    void shouldConvertCurrencyWithZeroAmount() {
+        String from = "USD";
+        String to = "EUR";
+        BigDecimal amount = BigDecimal.ZERO;
 
-        when(exchangeRateRepository.findByCurrencyCodeAndEffectiveDate(from, today))
-                .thenReturn(Optional.of(new ExchangeRate(from, BigDecimal.valueOf(1.2), today)));
-        when(exchangeRateRepository.findByCurrencyCodeAndEffectiveDate(to, today))
-                .thenReturn(Optional.of(new ExchangeRate(to, BigDecimal.valueOf(0.8), today)));
+        when(exchangeRateStore.findCurrentRate(from, today))
+                .thenReturn(Optional.of(BigDecimal.valueOf(1.2)));
+        when(exchangeRateStore.findCurrentRate(to, today))
+                .thenReturn(Optional.of(BigDecimal.valueOf(0.8)));
 
         BigDecimal result = currencyService.convertCurrency(from, amount, to);
         assertEquals(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP), result);
@@ -0,0 +1,73 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ExchangeRateIngestionServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.parse("2024-07-15");
+
+    private static final LocalDate YESTERDAY = TODAY.minusDays(1);
+
+    @Mock
+    private NbpApiConnector nbpApiConnector;
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private RateHistoryStore rateHistoryStore;
+
+    @Mock
+    private RateSnapshotFile rateSnapshotFile;
+
+    @Mock
+    private RateUpdateBroadcaster rateUpdateBroadcaster;
+
+    private ExchangeRateStore exchangeRateStore;
+
+    private ExchangeRateIngestionService exchangeRateIngestionService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2024-07-15T08:00:00Z"), ZoneId.of("UTC"));
+        exchangeRateStore = new ExchangeRateStore(exchangeRateRepository, clock);
+        exchangeRateIngestionService = new ExchangeRateIngestionService(nbpApiConnector, exchangeRateStore, rateHistoryStore,
+                new CurrencyRegistry(exchangeRateRepository, new BaseCurrency("PLN")), rateSnapshotFile, rateUpdateBroadcaster,
+                clock, List.of("A"));
+    }
+
+    @Test
+    void shouldKeyRatesOfYesterdaysTableByItsEffectiveDate() {
+        List<ExchangeRate> exchangeRates = List.of(new ExchangeRate("EUR", new BigDecimal("4.2831"), YESTERDAY));
+        when(nbpApiConnector.fetchAndSaveExchangeRateTable("A")).thenReturn(exchangeRates);
+
+        assertEquals(YESTERDAY, exchangeRateIngestionService.ingestTables());
+
+        assertFalse(exchangeRateStore.isWarm(TODAY));
+        assertTrue(exchangeRateStore.isWarm(YESTERDAY));
+        assertEquals(new BigDecimal("4.2831"), exchangeRateStore.findCurrentRate("EUR", TODAY).orElseThrow());
+        verify(rateHistoryStore).putAll(exchangeRates);
+        verify(rateSnapshotFile).write(argThat(snapshot -> YESTERDAY.equals(snapshot.getEffectiveDate())));
+        verify(rateUpdateBroadcaster).publish(argThat((ExchangeRateSnapshot snapshot) -> snapshot.isWarm() && YESTERDAY.equals(snapshot.getEffectiveDate())));
+    }
+}
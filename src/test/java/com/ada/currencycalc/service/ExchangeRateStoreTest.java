@@ -0,0 +1,105 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ExchangeRateStoreTest {
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private Clock clock;
+
+    @InjectMocks
+    private ExchangeRateStore exchangeRateStore;
+
+    private final LocalDate today = LocalDate.parse("2024-07-05");
+
+    @Test
+    void shouldRebuildSnapshotFromDatabase() {
+        ZoneId zoneId = ZoneId.of("UTC");
+        when(clock.getZone()).thenReturn(zoneId);
+        when(clock.instant()).thenReturn(Instant.parse("2024-07-05T10:00:00Z"));
+        when(exchangeRateRepository.findByEffectiveDate(today))
+                .thenReturn(List.of(new ExchangeRate("USD", BigDecimal.valueOf(3.95), today)));
+
+        exchangeRateStore.rebuild();
+
+        assertEquals(Optional.of(BigDecimal.valueOf(3.95)), exchangeRateStore.findRate("USD", today));
+        assertEquals(Optional.empty(), exchangeRateStore.findRate("EUR", today));
+    }
+
+    @Test
+    void shouldServeLastCompleteTableAsCurrentUntilTodaysIsLoaded() {
+        LocalDate yesterday = today.minusDays(1);
+        exchangeRateStore.put("USD", Rate.of("3.95"), yesterday);
+
+        assertTrue(exchangeRateStore.findCurrentSnapshot(today).isEmpty());
+
+        exchangeRateStore.markWarm(yesterday);
+
+        assertEquals(Optional.of(new BigDecimal("3.95")), exchangeRateStore.findCurrentRate("USD", today));
+        assertTrue(exchangeRateStore.isCurrentWarm(today));
+        assertFalse(exchangeRateStore.isWarm(today));
+    }
+
+    @Test
+    void shouldNotReturnRateFromAnotherDay() {
+        exchangeRateStore.put("USD", Rate.of("3.95"), today);
+
+        assertEquals(Optional.empty(), exchangeRateStore.findRate("USD", today.plusDays(1)));
+    }
+
+    @Test
+    void shouldSwapSnapshotWhenNewEffectiveDateArrives() {
+        exchangeRateStore.put("USD", Rate.of("3.95"), today);
+        exchangeRateStore.put("EUR", Rate.of("4.30"), today);
+
+        exchangeRateStore.put("USD", Rate.of("3.99"), today.plusDays(1));
+
+        assertEquals(today.plusDays(1), exchangeRateStore.getSnapshot().getEffectiveDate());
+        assertEquals(1, exchangeRateStore.getSnapshot().size());
+        assertEquals(Optional.of(BigDecimal.valueOf(3.99)), exchangeRateStore.findRate("USD", today.plusDays(1)));
+    }
+
+    @Test
+    void shouldIgnoreRatesOlderThanCurrentSnapshot() {
+        exchangeRateStore.put("USD", Rate.of("3.99"), today);
+
+        exchangeRateStore.put("EUR", Rate.of("4.30"), today.minusDays(1));
+
+        assertEquals(today, exchangeRateStore.getSnapshot().getEffectiveDate());
+        assertEquals(Optional.empty(), exchangeRateStore.findRate("EUR", today));
+    }
+
+    @Test
+    void shouldReportWarmOnlyForMarkedDay() {
+        exchangeRateStore.putAll(List.of(new ExchangeRate("USD", BigDecimal.valueOf(3.95), today)), today);
+        assertFalse(exchangeRateStore.isWarm(today));
+
+        exchangeRateStore.markWarm(today);
+        exchangeRateStore.put("EUR", Rate.of("4.30"), today);
+
+        assertTrue(exchangeRateStore.isWarm(today));
+        assertFalse(exchangeRateStore.isWarm(today.plusDays(1)));
+    }
+}
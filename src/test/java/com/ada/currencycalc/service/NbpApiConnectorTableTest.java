@@ -0,0 +1,108 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.NbpStubServer;
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.exceptions.ExternalApiException;
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class NbpApiConnectorTableTest {
+
+    private static final String TABLE_A = """
+            [{"table":"A","no":"129/A/NBP/2024","effectiveDate":"2024-07-05","rates":[
+              {"currency":"dolar amerykański","code":"USD","mid":3.9536},
+              {"currency":"euro","code":"EUR","mid":4.2836},
+              {"currency":"frank szwajcarski","code":"CHF","mid":4.4123}
+            ]}]
+            """;
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+
+    private NbpStubServer stubServer;
+
+    private NbpApiConnector nbpApiConnector;
+
+    private final ZoneId zoneId = ZoneId.of("UTC");
+    private final Instant fixedInstant = Instant.parse("2024-07-05T10:00:00Z");
+    private final LocalDate fixedDate = LocalDate.ofInstant(fixedInstant, zoneId);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = new NbpStubServer();
+        nbpApiConnector = new NbpApiConnector(new RestTemplate(), exchangeRateRepository, Clock.fixed(fixedInstant, zoneId),
+                new RateMetrics(new SimpleMeterRegistry()),
+                new NbpCircuitBreaker(Clock.systemUTC(), 5, Duration.ofSeconds(30)));
+        ReflectionTestUtils.setField(nbpApiConnector, "nbpApiUrl", stubServer.baseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.close();
+    }
+
+    @Test
+    void shouldFetchAndSaveWholeTableInOneBatch() {
+        stubServer.respond("/api/exchangerates/tables/A/", 200, TABLE_A);
+
+        List<ExchangeRate> exchangeRates = nbpApiConnector.fetchAndSaveExchangeRateTable("A");
+
+        assertEquals(List.of("USD", "EUR", "CHF"), exchangeRates.stream().map(ExchangeRate::getCurrencyCode).toList());
+        assertEquals(Rate.of("4.2836"), exchangeRates.get(1).getRate());
+        assertTrue(exchangeRates.stream().allMatch(exchangeRate -> fixedDate.equals(exchangeRate.getEffectiveDate())));
+        verify(exchangeRateRepository).upsertAll(exchangeRates);
+    }
+
+    @Test
+    void shouldStampRatesWithEffectiveDateOfTableNotToday() {
+        nbpApiConnector = new NbpApiConnector(new RestTemplate(), exchangeRateRepository, Clock.fixed(fixedInstant.plus(Duration.ofDays(1)), zoneId),
+                new RateMetrics(new SimpleMeterRegistry()),
+                new NbpCircuitBreaker(Clock.systemUTC(), 5, Duration.ofSeconds(30)));
+        ReflectionTestUtils.setField(nbpApiConnector, "nbpApiUrl", stubServer.baseUrl());
+        stubServer.respond("/api/exchangerates/tables/A/", 200, TABLE_A);
+
+        List<ExchangeRate> exchangeRates = nbpApiConnector.fetchAndSaveExchangeRateTable("A");
+
+        assertTrue(exchangeRates.stream().allMatch(exchangeRate -> fixedDate.equals(exchangeRate.getEffectiveDate())));
+    }
+
+    @Test
+    void shouldThrowExternalApiExceptionWhenTableIsNotFound() {
+        stubServer.respond("/api/exchangerates/tables/A/", 404, "");
+
+        assertThrows(ExternalApiException.class, () -> nbpApiConnector.fetchAndSaveExchangeRateTable("A"));
+        verify(exchangeRateRepository, never()).upsertAll(any());
+    }
+
+    @Test
+    void shouldRejectEmptyTable() {
+        stubServer.respond("/api/exchangerates/tables/A/", 200, "[]");
+
+        assertThrows(RuntimeException.class, () -> nbpApiConnector.fetchAndSaveExchangeRateTable("A"));
+        verify(exchangeRateRepository, never()).upsertAll(any());
+    }
+}
@@ -1,26 +1,27 @@
 package com.ada.currencycalc.service;
 
-import com.ada.currencycalc.model.ExchangeRateDTO;
-import com.ada.currencycalc.model.RateDTO;
+import com.ada.currencycalc.conversion.Rate;
 import com.ada.currencycalc.repository.ExchangeRateRepository;
-import org.junit.jupiter.api.BeforeEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -37,40 +38,33 @@ public class NbpApiConnectorTest {
     @Mock
     private Clock clock;
 
-    @InjectMocks
-    private NbpApiConnector nbpApiConnector;
-
+    @Spy
+    private RateMetrics rateMetrics = new RateMetrics(new SimpleMeterRegistry());
 
-    private final ZoneId zoneId = ZoneId.of("UTC");
-    private final Instant fixedInstant = Instant.parse("2024-08-01T10:00:00Z");
-    private final LocalDate fixedDate = LocalDate.ofInstant(fixedInstant, zoneId);
+    @Spy
+    private NbpCircuitBreaker nbpCircuitBreaker = new NbpCircuitBreaker(Clock.systemUTC(), 5, Duration.ofSeconds(30));
 
-    @BeforeEach
-    void setUp() {
-        when(clock.getZone()).thenReturn(zoneId);
-        when(clock.instant()).thenReturn(fixedInstant);
-    }
+    @InjectMocks
+    private NbpApiConnector nbpApiConnector;
 
     @Test
-    void shouldFetchAndSaveExchangeRateSuccessfully() {
+    void shouldFetchExchangeRateSuccessfully() {
         String currencyCode = "USD";
-        BigDecimal expectedRate = BigDecimal.valueOf(1.2);
-        ExchangeRateDTO exchangeRateDTO = new ExchangeRateDTO();
-        RateDTO rateDTO = new RateDTO();
-        rateDTO.setMid(expectedRate);
-        exchangeRateDTO.setRates(Collections.singletonList(rateDTO));
-
-        ResponseEntity<ExchangeRateDTO> responseEntity = ResponseEntity.ok(exchangeRateDTO);
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), eq(HttpEntity.EMPTY), eq(ExchangeRateDTO.class)))
-                .thenReturn(responseEntity);
-
-        BigDecimal rate = nbpApiConnector.fetchAndSaveExchangeRate(currencyCode);
-
-        assertEquals(expectedRate, rate);
-        verify(exchangeRateRepository).save(argThat(exchangeRate ->
-                currencyCode.equals(exchangeRate.getCurrencyCode()) &&
-                        expectedRate.equals(exchangeRate.getRate()) &&
-                        fixedDate.equals(exchangeRate.getEffectiveDate())));
+        BigDecimal expectedRate = new BigDecimal("1.2");
+        byte[] body = """
+                {"table":"A","currency":"dolar amerykański","code":"USD","rates":[{"no":"148/A/NBP/2024","effectiveDate":"2024-07-31","mid":1.2}]}
+                """.getBytes(StandardCharsets.UTF_8);
+        when(clock.getZone()).thenReturn(ZoneId.of("UTC"));
+        when(clock.instant()).thenReturn(Instant.parse("2024-07-31T13:00:00Z"));
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<?>>getArgument(3)
+                        .extractData(new MockClientHttpResponse(body, HttpStatus.OK)));
+
+        Rate rate = nbpApiConnector.fetchRate(currencyCode);
+
+        assertEquals(expectedRate, rate.toBigDecimal());
+        verify(restTemplate).execute(endsWith("exchangerates/rates/A/USD/2024-07-31/"), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class));
+        verifyNoInteractions(exchangeRateRepository);
     }
 
 //    @Test
@@ -0,0 +1,113 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.exceptions.UpstreamUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NbpCircuitBreakerTest {
+
+    @Mock
+    private Clock clock;
+
+    private NbpCircuitBreaker circuitBreaker;
+
+    private final Instant start = Instant.parse("2024-07-05T10:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new NbpCircuitBreaker(clock, 3, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void shouldOpenAfterConsecutiveFailuresAndFailFast() {
+        when(clock.instant()).thenReturn(start);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceAccessException.class, () -> circuitBreaker.call(() -> {
+                calls.incrementAndGet();
+                throw new ResourceAccessException("timeout");
+            }));
+        }
+
+        assertEquals(NbpCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(UpstreamUnavailableException.class, () -> circuitBreaker.call(calls::incrementAndGet));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void shouldCloseAfterSuccessfulProbeOnceOpenDurationElapsed() {
+        when(clock.instant()).thenReturn(start);
+        openBreaker();
+
+        when(clock.instant()).thenReturn(start.plusSeconds(31));
+
+        assertEquals("ok", circuitBreaker.call(() -> "ok"));
+        assertEquals(NbpCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() {
+        when(clock.instant()).thenReturn(start);
+        openBreaker();
+        when(clock.instant()).thenReturn(start.plusSeconds(31));
+
+        assertThrows(ResourceAccessException.class, () -> circuitBreaker.call(() -> {
+            throw new ResourceAccessException("timeout");
+        }));
+
+        assertEquals(NbpCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(UpstreamUnavailableException.class, () -> circuitBreaker.call(() -> "ok"));
+    }
+
+    @Test
+    void shouldReopenWhenProbeThrowsError() {
+        when(clock.instant()).thenReturn(start);
+        openBreaker();
+        when(clock.instant()).thenReturn(start.plusSeconds(31));
+
+        assertThrows(StackOverflowError.class, () -> circuitBreaker.call(() -> {
+            throw new StackOverflowError();
+        }));
+
+        assertEquals(NbpCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        when(clock.instant()).thenReturn(start.plusSeconds(62));
+        assertEquals("ok", circuitBreaker.call(() -> "ok"));
+    }
+
+    @Test
+    void shouldNotCountClientErrorsAsFailures() {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(HttpClientErrorException.class, () -> circuitBreaker.call(() -> {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            }));
+        }
+
+        assertEquals(NbpCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        verifyNoInteractions(clock);
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceAccessException.class, () -> circuitBreaker.call(() -> {
+                throw new ResourceAccessException("timeout");
+            }));
+        }
+        assertEquals(NbpCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+}
@@ -0,0 +1,100 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.model.ExchangeRate;
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NbpResponseReaderTest {
+
+    private final NbpResponseReader reader = new NbpResponseReader();
+
+    private final List<ExchangeRate> rates = new ArrayList<>();
+
+    @Test
+    void shouldReadEveryRateOfSeries() throws IOException {
+        int count = reader.readSeries(json("""
+                {"table":"A","currency":"euro","code":"EUR","rates":[
+                  {"no":"128/A/NBP/2024","effectiveDate":"2024-07-04","mid":4.2939},
+                  {"no":"129/A/NBP/2024","effectiveDate":"2024-07-05","mid":4.2836}
+                ]}
+                """), "EUR", (code, date, mid) -> rates.add(new ExchangeRate(code, mid, date)));
+
+        assertEquals(2, count);
+        assertEquals("EUR", rates.get(1).getCurrencyCode());
+        assertEquals(LocalDate.parse("2024-07-04"), rates.get(0).getEffectiveDate());
+        assertEquals(Rate.of("4.2836"), rates.get(1).getRate());
+    }
+
+    @Test
+    void shouldReadFirstTableAndSkipUnknownFields() throws IOException {
+        int count = reader.readTables(json("""
+                [{"table":"A","no":"129/A/NBP/2024","effectiveDate":"2024-07-05","extra":{"nested":[1,2]},"rates":[
+                  {"currency":"dolar amerykański","code":"USD","mid":3.9536},
+                  {"currency":"euro","code":"EUR","mid":4.2836}
+                ]},
+                 {"table":"A","no":"130/A/NBP/2024","effectiveDate":"2024-07-08","rates":[{"code":"GBP","mid":5.0}]}]
+                """), (code, date, mid) -> rates.add(new ExchangeRate(code, mid, date)));
+
+        assertEquals(2, count);
+        assertEquals(List.of("USD", "EUR"), rates.stream().map(ExchangeRate::getCurrencyCode).toList());
+        assertTrue(rates.stream().allMatch(rate -> LocalDate.parse("2024-07-05").equals(rate.getEffectiveDate())));
+    }
+
+    @Test
+    void shouldStampRatesReadBeforeEffectiveDateWithTableDate() throws IOException {
+        int count = reader.readTables(json("""
+                [{"table":"A","rates":[
+                  {"code":"USD","mid":3.9536},
+                  {"code":"EUR","mid":4.2836}
+                ],"no":"129/A/NBP/2024","effectiveDate":"2024-07-05"}]
+                """), (code, date, mid) -> rates.add(new ExchangeRate(code, mid, date)));
+
+        assertEquals(2, count);
+        assertEquals(List.of("USD", "EUR"), rates.stream().map(ExchangeRate::getCurrencyCode).toList());
+        assertTrue(rates.stream().allMatch(rate -> LocalDate.parse("2024-07-05").equals(rate.getEffectiveDate())));
+    }
+
+    @Test
+    void shouldRejectTableRatesWithoutEffectiveDate() {
+        assertThrows(JsonParseException.class, () -> reader.readTables(json("""
+                [{"table":"A","rates":[{"code":"USD","mid":3.9536}]}]
+                """), (code, date, mid) -> fail()));
+    }
+
+    @Test
+    void shouldReadNoRatesFromEmptyTableList() throws IOException {
+        assertEquals(0, reader.readTables(json("[]"), (code, date, mid) -> fail()));
+    }
+
+    @Test
+    void shouldRejectMalformedDates() {
+        assertThrows(JsonParseException.class, () -> reader.readSeries(json("""
+                {"rates":[{"effectiveDate":"2024-7-05","mid":4.0}]}
+                """), "EUR", (code, date, mid) -> fail()));
+        assertThrows(JsonParseException.class, () -> reader.readSeries(json("""
+                {"rates":[{"effectiveDate":"2024-02-30","mid":4.0}]}
+                """), "EUR", (code, date, mid) -> fail()));
+    }
+
+    @Test
+    void shouldRejectRateWithoutMid() {
+        assertThrows(JsonParseException.class, () -> reader.readSeries(json("""
+                {"rates":[{"effectiveDate":"2024-07-05"}]}
+                """), "EUR", (code, date, mid) -> fail()));
+    }
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
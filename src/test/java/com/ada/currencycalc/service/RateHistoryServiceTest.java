@@ -0,0 +1,130 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.exceptions.ExternalApiException;
+import com.ada.currencycalc.model.BackfillResult;
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateHistoryServiceTest {
+
+    @Mock
+    private NbpApiConnector nbpApiConnector;
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    private RateHistoryStore rateHistoryStore;
+
+    private RateHistoryService rateHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2024-07-05T10:00:00Z"), ZoneId.of("UTC"));
+        rateHistoryStore = new RateHistoryStore(exchangeRateRepository, clock, Period.ofDays(400));
+        BaseCurrency baseCurrency = new BaseCurrency("PLN");
+        rateHistoryService = new RateHistoryService(rateHistoryStore, nbpApiConnector, clock,
+                new CurrencyRegistry(exchangeRateRepository, baseCurrency), baseCurrency, Period.ofDays(7), true,
+                Period.ofYears(1), 2);
+    }
+
+    @Test
+    void shouldAnswerFromHistoryWithoutCallingNbp() {
+        rateHistoryStore.put("USD", Rate.of("3.97"), LocalDate.parse("2024-03-01"));
+
+        assertEquals(new BigDecimal("3.97"), rateHistoryService.getExchangeRate("USD", LocalDate.parse("2024-03-01")));
+        verifyNoInteractions(nbpApiConnector);
+    }
+
+    @Test
+    void shouldFetchDateInsteadOfServingOlderRateAcrossGapInHistory() {
+        LocalDate thursday = LocalDate.parse("2024-02-29");
+        rateHistoryStore.put("USD", Rate.of("3.95"), LocalDate.parse("2024-02-26"));
+        when(nbpApiConnector.fetchAndSaveExchangeRates("USD", thursday.minusDays(7), thursday)).thenReturn(List.of(
+                new ExchangeRate("USD", new BigDecimal("3.95"), LocalDate.parse("2024-02-26")),
+                new ExchangeRate("USD", new BigDecimal("3.99"), thursday)));
+
+        assertEquals(new BigDecimal("3.99"), rateHistoryService.getExchangeRate("USD", thursday));
+    }
+
+    @Test
+    void shouldFetchMissingWindowOnceAndServeFollowingDatesFromHistory() {
+        LocalDate sunday = LocalDate.parse("2024-03-03");
+        when(nbpApiConnector.fetchAndSaveExchangeRates("USD", sunday.minusDays(7), sunday)).thenReturn(List.of(
+                new ExchangeRate("USD", new BigDecimal("3.99"), LocalDate.parse("2024-02-29")),
+                new ExchangeRate("USD", new BigDecimal("3.97"), LocalDate.parse("2024-03-01"))));
+
+        assertEquals(new BigDecimal("3.97"), rateHistoryService.getExchangeRate("USD", sunday));
+        assertEquals(new BigDecimal("3.97"), rateHistoryService.getExchangeRate("USD", sunday.minusDays(1)));
+        assertEquals(new BigDecimal("3.99"), rateHistoryService.getExchangeRate("USD", LocalDate.parse("2024-02-29")));
+        verify(nbpApiConnector, times(1)).fetchAndSaveExchangeRates(any(), any(), any());
+    }
+
+    @Test
+    void shouldThrowWhenNoRateIsPublishedWithinMaxGap() {
+        rateHistoryStore.put("USD", Rate.of("3.97"), LocalDate.parse("2024-01-02"));
+        when(nbpApiConnector.fetchAndSaveExchangeRates(eq("USD"), any(), any())).thenReturn(List.of());
+
+        assertThrows(ExternalApiException.class, () -> rateHistoryService.getExchangeRate("USD", LocalDate.parse("2024-03-03")));
+    }
+
+    @Test
+    void shouldBackfillInWindowsNbpAccepts() {
+        LocalDate start = LocalDate.parse("2024-01-01");
+        LocalDate end = LocalDate.parse("2024-06-30");
+        when(nbpApiConnector.fetchAndSaveExchangeRates(eq("USD"), any(), any()))
+                .thenAnswer(invocation -> List.of(new ExchangeRate("USD", BigDecimal.ONE, invocation.getArgument(1))));
+
+        BackfillResult result = rateHistoryService.backfill(List.of("USD"), start, end);
+
+        assertEquals(Map.of("USD", 2), result.getRatesByCurrency());
+        verify(nbpApiConnector).fetchAndSaveExchangeRates("USD", start, LocalDate.parse("2024-04-02"));
+        verify(nbpApiConnector).fetchAndSaveExchangeRates("USD", LocalDate.parse("2024-04-03"), end);
+    }
+
+    @Test
+    void shouldRejectBackfillEndingInTheFuture() {
+        assertThrows(IllegalArgumentException.class,
+                () -> rateHistoryService.backfill(List.of("USD"), LocalDate.parse("2024-07-01"), LocalDate.parse("2024-07-06")));
+        verifyNoInteractions(nbpApiConnector);
+    }
+
+    @Test
+    void shouldRejectBackfillStartingBeforeFirstNbpTable() {
+        assertThrows(IllegalArgumentException.class,
+                () -> rateHistoryService.backfill(List.of("USD"), LocalDate.parse("0001-01-01"), LocalDate.parse("2002-03-01")));
+        verifyNoInteractions(nbpApiConnector);
+    }
+
+    @Test
+    void shouldRejectBackfillLongerThanMaxSpan() {
+        assertThrows(IllegalArgumentException.class,
+                () -> rateHistoryService.backfill(List.of("USD"), LocalDate.parse("2023-01-01"), LocalDate.parse("2024-01-02")));
+        verifyNoInteractions(nbpApiConnector);
+    }
+
+    @Test
+    void shouldRejectBackfillOfMoreCurrenciesThanAllowed() {
+        assertThrows(IllegalArgumentException.class,
+                () -> rateHistoryService.backfill(List.of("USD", "EUR", "GBP"), LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-31")));
+        verifyNoInteractions(nbpApiConnector);
+    }
+}
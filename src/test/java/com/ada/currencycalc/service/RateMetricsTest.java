@@ -0,0 +1,59 @@
+package com.ada.currencycalc.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RateMetrics rateMetrics = new RateMetrics(meterRegistry);
+
+    @Test
+    void shouldCountHitsAndMissesPerCurrency() {
+        rateMetrics.recordRateLookup("USD", true);
+        rateMetrics.recordRateLookup("USD", true);
+        rateMetrics.recordRateLookup("USD", false);
+
+        assertEquals(2, lookups("USD", "hit"));
+        assertEquals(1, lookups("USD", "miss"));
+    }
+
+    @Test
+    void shouldFoldCurrenciesBeyondTagLimitIntoOther() {
+        for (int i = 0; i < RateMetrics.MAX_CURRENCY_TAGS + 10; i++) {
+            rateMetrics.recordRateLookup("C" + i, false);
+        }
+
+        assertEquals(RateMetrics.MAX_CURRENCY_TAGS + 1, meterRegistry.find("currency.rate.lookups").counters().size());
+        assertEquals(10, lookups(RateMetrics.OTHER_CURRENCY, "miss"));
+    }
+
+    @Test
+    void shouldTimeNbpFetchesByOutcome() {
+        rateMetrics.timeNbpFetch("rate", () -> "body");
+        assertThrows(HttpClientErrorException.NotFound.class, () -> rateMetrics.timeNbpFetch("rate", () -> {
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+        }));
+        assertThrows(ResourceAccessException.class, () -> rateMetrics.timeNbpFetch("rate", () -> {
+            throw new ResourceAccessException("Read timed out");
+        }));
+
+        assertEquals(1, fetches("success"));
+        assertEquals(1, fetches("not_found"));
+        assertEquals(1, fetches("error"));
+    }
+
+    private double lookups(String currency, String result) {
+        return meterRegistry.get("currency.rate.lookups").tag("currency", currency).tag("result", result).counter().count();
+    }
+
+    private long fetches(String outcome) {
+        return meterRegistry.get("nbp.fetch").tag("request", "rate").tag("outcome", outcome).timer().count();
+    }
+}
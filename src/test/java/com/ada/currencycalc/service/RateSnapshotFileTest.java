@@ -0,0 +1,144 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.conversion.Rate;
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class RateSnapshotFileTest {
+
+    private static final LocalDate TODAY = LocalDate.parse("2024-07-15");
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private RateHistoryStore rateHistoryStore;
+
+    @TempDir
+    private Path directory;
+
+    private Path path;
+
+    private ExchangeRateStore exchangeRateStore;
+
+    private CurrencyRegistry currencyRegistry;
+
+    private RateSnapshotFile rateSnapshotFile;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2024-07-15T10:00:00Z"), ZoneId.of("UTC"));
+        path = directory.resolve("snapshots/rates.bin");
+        exchangeRateStore = new ExchangeRateStore(exchangeRateRepository, clock);
+        currencyRegistry = new CurrencyRegistry(exchangeRateRepository, new BaseCurrency("PLN"));
+        rateSnapshotFile = new RateSnapshotFile(exchangeRateStore, rateHistoryStore, currencyRegistry, clock, true, path);
+    }
+
+    @Test
+    void shouldRestoreWarmSnapshotOfTodayIntoEmptyStore() throws Exception {
+        rateSnapshotFile.write(snapshot(TODAY).asWarm());
+
+        rateSnapshotFile.restore();
+
+        assertTrue(exchangeRateStore.isWarm(TODAY));
+        assertEquals(new BigDecimal("4.2831"), exchangeRateStore.findRate("EUR", TODAY).orElseThrow());
+        assertEquals(new BigDecimal("0.0265"), exchangeRateStore.findRate("JPY", TODAY).orElseThrow());
+        assertTrue(currencyRegistry.isComplete());
+        verify(rateHistoryStore).putAll(anyCollection());
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            assertEquals(List.of(path), files.toList());
+        }
+    }
+
+    @Test
+    void shouldRestoreWarmSnapshotOfEarlierDayAsStaleIntoEmptyStore() {
+        exchangeRateStore.rebuild();
+        rateSnapshotFile.write(snapshot(TODAY.minusDays(3)).asWarm());
+
+        rateSnapshotFile.restore();
+
+        assertFalse(exchangeRateStore.isWarm(TODAY));
+        assertTrue(exchangeRateStore.isCurrentWarm(TODAY));
+        assertEquals(new BigDecimal("4.2831"), exchangeRateStore.findCurrentRate("EUR", TODAY).orElseThrow());
+        assertTrue(currencyRegistry.isComplete());
+        verify(rateHistoryStore).putAll(anyCollection());
+    }
+
+    @Test
+    void shouldNotReplaceTodaysRatesWithWarmSnapshotOfEarlierDay() {
+        exchangeRateStore.put("EUR", Rate.of("4.3000"), TODAY);
+        rateSnapshotFile.write(snapshot(TODAY.minusDays(1)).asWarm());
+
+        rateSnapshotFile.restore();
+
+        assertEquals(new BigDecimal("4.3"), exchangeRateStore.findCurrentRate("EUR", TODAY).orElseThrow());
+        assertFalse(exchangeRateStore.findCurrentRate("JPY", TODAY).isPresent());
+    }
+
+    @Test
+    void shouldOnlySeedHistoryFromColdSnapshotOfEarlierDay() {
+        rateSnapshotFile.write(snapshot(TODAY.minusDays(1)));
+
+        rateSnapshotFile.restore();
+
+        assertFalse(exchangeRateStore.findSnapshot(TODAY).isPresent());
+        assertFalse(currencyRegistry.isComplete());
+        currencyRegistry.registerPublished(List.of());
+        assertEquals("JPY", currencyRegistry.resolve("jpy"));
+        verify(rateHistoryStore).putAll(anyCollection());
+    }
+
+    @Test
+    void shouldIgnoreCorruptSnapshot() throws Exception {
+        rateSnapshotFile.write(snapshot(TODAY).asWarm());
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[20] ^= 1;
+        Files.write(path, bytes);
+
+        rateSnapshotFile.restore();
+
+        assertFalse(exchangeRateStore.isWarm(TODAY));
+        verify(rateHistoryStore, never()).putAll(anyCollection());
+    }
+
+    @Test
+    void shouldIgnoreMissingOrTruncatedSnapshot() throws Exception {
+        assertTrue(rateSnapshotFile.read().isEmpty());
+
+        rateSnapshotFile.write(snapshot(TODAY));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertTrue(rateSnapshotFile.read().isEmpty());
+    }
+
+    private static ExchangeRateSnapshot snapshot(LocalDate effectiveDate) {
+        return ExchangeRateSnapshot.of(effectiveDate, List.of(
+                new ExchangeRate("EUR", new BigDecimal("4.2831"), effectiveDate),
+                new ExchangeRate("JPY", new BigDecimal("0.02650000"), effectiveDate)));
+    }
+}
@@ -0,0 +1,243 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.model.ExchangeRateSnapshot;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateUpdateBroadcasterTest {
+
+    private static final LocalDate TODAY = LocalDate.parse("2024-07-15");
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(10);
+
+    private final AdjustableClock clock = new AdjustableClock(Instant.parse("2024-07-15T10:00:00Z"));
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    private ExchangeRateStore exchangeRateStore;
+
+    private RateUpdateBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateStore = new ExchangeRateStore(exchangeRateRepository, clock);
+        broadcaster = new RateUpdateBroadcaster(exchangeRateStore, objectMapper, new RateMetrics(meterRegistry), clock,
+                SEND_TIMEOUT, 4, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.close();
+    }
+
+    @Test
+    void shouldSendCurrentTableOnSubscribeAndEachNewTableOnceToAll() throws Exception {
+        exchangeRateStore.replace(snapshot(TODAY, "4.2831"));
+        RecordingEmitter first = new RecordingEmitter(new CountDownLatch(0));
+        RecordingEmitter second = new RecordingEmitter(new CountDownLatch(0));
+
+        broadcaster.register(first, () -> {
+        });
+        assertTrue(first.sent.tryAcquire(1, 5, TimeUnit.SECONDS));
+        broadcaster.register(second, () -> {
+        });
+        assertTrue(second.sent.tryAcquire(1, 5, TimeUnit.SECONDS));
+
+        assertFalse(broadcaster.publish(snapshot(TODAY, "4.2831")));
+        assertTrue(broadcaster.publish(snapshot(TODAY.plusDays(1), "4.2900")));
+        assertTrue(first.sent.tryAcquire(1, 5, TimeUnit.SECONDS));
+        assertTrue(second.sent.tryAcquire(1, 5, TimeUnit.SECONDS));
+
+        assertEquals(2, first.frames.size());
+        assertSame(first.frames.get(1), second.frames.get(1));
+        String frame = text(first.frames.get(1));
+        assertTrue(frame.contains("event:rates"), frame);
+        assertTrue(frame.contains("id:2024-07-16"), frame);
+        assertTrue(frame.contains("{\"effectiveDate\":\"2024-07-16\",\"warm\":true,\"rates\":{\"EUR\":4.29}}"), frame);
+    }
+
+    @Test
+    void shouldNotSendSameTablePublishedAtAnotherScaleAgain() throws Exception {
+        exchangeRateStore.replace(snapshot(TODAY, "4.2831"));
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        broadcaster.register(emitter, () -> {
+        });
+        assertTrue(emitter.sent.tryAcquire(1, 5, TimeUnit.SECONDS));
+
+        assertFalse(broadcaster.publish(snapshot(TODAY, "4.28310000")));
+
+        assertFalse(emitter.sent.tryAcquire(1, 100, TimeUnit.MILLISECONDS));
+        assertEquals(1, emitter.frames.size());
+    }
+
+    @Test
+    void shouldNotSendAnythingOnSubscribeBeforeTablesAreLoaded() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+
+        broadcaster.register(emitter, () -> {
+        });
+
+        assertFalse(emitter.sent.tryAcquire(1, 100, TimeUnit.MILLISECONDS));
+        assertEquals(1, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void shouldSendOnlyLatestTableToSubscriberStillSendingPreviousOne() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        broadcaster.register(emitter, () -> {
+        });
+        broadcaster.publish(snapshot(TODAY, "4.2831"));
+        assertTrue(emitter.sending.tryAcquire(1, 5, TimeUnit.SECONDS));
+
+        for (int day = 1; day < 4; day++) {
+            broadcaster.publish(snapshot(TODAY.plusDays(day), "4.2831"));
+        }
+        release.countDown();
+
+        assertTrue(emitter.sent.tryAcquire(2, 5, TimeUnit.SECONDS));
+        assertFalse(emitter.sent.tryAcquire(1, 100, TimeUnit.MILLISECONDS));
+        assertTrue(text(emitter.frames.get(0)).contains("id:2024-07-15"));
+        assertTrue(text(emitter.frames.get(1)).contains("id:2024-07-18"));
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertEquals(0, meterRegistry.get("currency.rates.stream.dropped").counter().count());
+    }
+
+    @Test
+    void shouldDisconnectSubscriberStuckInSendOnSweepAndKeepDeliveringToOthers() throws Exception {
+        broadcaster.close();
+        broadcaster = new RateUpdateBroadcaster(exchangeRateStore, objectMapper, new RateMetrics(meterRegistry), clock,
+                SEND_TIMEOUT, 1, Duration.ofMinutes(1));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch aborted = new CountDownLatch(1);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        RecordingEmitter slow = new RecordingEmitter(release);
+        broadcaster.register(fast, () -> {
+        });
+        broadcaster.publish(snapshot(TODAY, "4.2831"));
+        assertTrue(fast.sent.tryAcquire(1, 5, TimeUnit.SECONDS));
+        broadcaster.register(slow, aborted::countDown);
+        assertTrue(slow.sending.tryAcquire(1, 5, TimeUnit.SECONDS));
+
+        broadcaster.sweep();
+        assertEquals(2, broadcaster.getSubscriberCount());
+        clock.advance(SEND_TIMEOUT.plusSeconds(1));
+        broadcaster.sweep();
+
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertEquals(1, meterRegistry.get("currency.rates.stream.dropped").counter().count());
+        assertEquals(0, aborted.getCount());
+        broadcaster.publish(snapshot(TODAY.plusDays(1), "4.2831"));
+        assertTrue(fast.sent.tryAcquire(1, 5, TimeUnit.SECONDS));
+        release.countDown();
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, slow.frames.size());
+        assertEquals(1, fast.completed.getCount());
+    }
+
+    private static ExchangeRateSnapshot snapshot(LocalDate effectiveDate, String eurRate) {
+        return ExchangeRateSnapshot.of(effectiveDate, List.of(new ExchangeRate("EUR", new BigDecimal(eurRate), effectiveDate))).asWarm();
+    }
+
+    private static String text(Set<SseEmitter.DataWithMediaType> frame) {
+        return frame.stream().map(item -> item.getData().toString()).collect(Collectors.joining());
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<Set<DataWithMediaType>> frames = new CopyOnWriteArrayList<>();
+
+        private final Semaphore sending = new Semaphore(0);
+
+        private final Semaphore sent = new Semaphore(0);
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private final CountDownLatch released;
+
+        private RecordingEmitter(CountDownLatch released) {
+            this.released = released;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> frame) throws IOException {
+            sending.release();
+            try {
+                released.await();
+            } catch (InterruptedException ex) {
+                throw new InterruptedIOException();
+            }
+            frames.add(frame);
+            sent.release();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+
+    private static final class AdjustableClock extends Clock {
+
+        private volatile Instant instant;
+
+        private AdjustableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.exceptions.ExternalApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateWarmupServiceTest {
+
+    @Mock
+    private ExchangeRateIngestionService exchangeRateIngestionService;
+
+    @Mock
+    private ExchangeRateStore exchangeRateStore;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final Instant now = Instant.parse("2024-07-05T00:05:00Z");
+
+    private final Clock clock = Clock.fixed(now, ZoneId.of("UTC"));
+
+    private final LocalDate today = LocalDate.parse("2024-07-05");
+
+    private RateWarmupService rateWarmupService;
+
+    @BeforeEach
+    void setUp() {
+        rateWarmupService = new RateWarmupService(exchangeRateIngestionService, exchangeRateStore, taskScheduler, clock,
+                true, Duration.ofSeconds(5), Duration.ofSeconds(15));
+    }
+
+    @Test
+    void shouldIngestTablesOnWarmUp() {
+        when(exchangeRateIngestionService.ingestTables()).thenReturn(today);
+
+        rateWarmupService.warmUp();
+
+        verify(exchangeRateIngestionService).ingestTables();
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    void shouldRetryWithExponentialBackoffUntilSuccess() {
+        when(exchangeRateIngestionService.ingestTables())
+                .thenThrow(new ExternalApiException("503"))
+                .thenThrow(new ExternalApiException("503"))
+                .thenThrow(new ExternalApiException("503"))
+                .thenReturn(today);
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+
+        rateWarmupService.warmUp();
+        verify(taskScheduler).schedule(retry.capture(), eq(now.plusSeconds(5)));
+        retry.getValue().run();
+        verify(taskScheduler).schedule(retry.capture(), eq(now.plusSeconds(10)));
+        retry.getValue().run();
+        verify(taskScheduler).schedule(retry.capture(), eq(now.plusSeconds(15)));
+        retry.getValue().run();
+
+        verify(exchangeRateIngestionService, times(4)).ingestTables();
+        verify(taskScheduler, times(3)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void shouldRetryUntilTodaysTablesArePublished() {
+        when(exchangeRateIngestionService.ingestTables()).thenReturn(today.minusDays(1), today);
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+
+        rateWarmupService.warmUp();
+        verify(taskScheduler).schedule(retry.capture(), eq(now.plusSeconds(5)));
+        retry.getValue().run();
+
+        verify(exchangeRateIngestionService, times(2)).ingestTables();
+        verifyNoMoreInteractions(taskScheduler);
+    }
+
+    @Test
+    void shouldAllowNextWarmUpAfterError() {
+        when(exchangeRateIngestionService.ingestTables()).thenThrow(new OutOfMemoryError()).thenReturn(today);
+
+        assertThrows(OutOfMemoryError.class, rateWarmupService::warmUp);
+        rateWarmupService.warmUp();
+
+        verify(exchangeRateIngestionService, times(2)).ingestTables();
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    void shouldNotStartSecondWarmUpWhileRetrying() {
+        when(exchangeRateIngestionService.ingestTables()).thenThrow(new ExternalApiException("503"));
+
+        rateWarmupService.warmUp();
+        rateWarmupService.warmUp();
+
+        verify(exchangeRateIngestionService, times(1)).ingestTables();
+    }
+
+    @Test
+    void shouldSkipStartupWarmUpWhenSnapshotIsAlreadyWarm() {
+        when(exchangeRateStore.isWarm(today)).thenReturn(true);
+
+        rateWarmupService.warmUpOnStartup();
+
+        assertTrue(rateWarmupService.isWarm());
+        verifyNoInteractions(exchangeRateIngestionService);
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        rateWarmupService = new RateWarmupService(exchangeRateIngestionService, exchangeRateStore, taskScheduler, clock,
+                false, Duration.ofSeconds(5), Duration.ofSeconds(15));
+
+        rateWarmupService.warmUp();
+
+        assertFalse(rateWarmupService.isWarm());
+        verifyNoInteractions(exchangeRateIngestionService);
+    }
+}
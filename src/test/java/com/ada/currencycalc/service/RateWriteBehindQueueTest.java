@@ -0,0 +1,97 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.model.ExchangeRate;
+import com.ada.currencycalc.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateWriteBehindQueueTest {
+
+    private static final LocalDate DATE = LocalDate.parse("2024-07-05");
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    private RateWriteBehindQueue queue;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        queue.close();
+    }
+
+    @Test
+    void shouldSaveQueuedRatesInBatchesOffCallerThread() {
+        queue = new RateWriteBehindQueue(exchangeRateRepository, 100, 10, Duration.ofMillis(200), Duration.ofMillis(10));
+        queue.start();
+
+        for (int i = 0; i < 25; i++) {
+            queue.enqueue(rate("C" + i));
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ExchangeRate>> batches = ArgumentCaptor.forClass(List.class);
+        verify(exchangeRateRepository, timeout(2_000).atLeast(3)).upsertAll(batches.capture());
+        assertEquals(25, batches.getAllValues().stream().mapToInt(List::size).sum());
+        assertTrue(batches.getAllValues().stream().allMatch(batch -> batch.size() <= 10));
+        verify(exchangeRateRepository, never()).upsert(any());
+    }
+
+    @Test
+    void shouldSaveOnCallerThreadWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(exchangeRateRepository).upsertAll(anyList());
+        queue = new RateWriteBehindQueue(exchangeRateRepository, 1, 1, Duration.ofMillis(50), Duration.ofMillis(10));
+        queue.start();
+
+        queue.enqueue(rate("USD"));
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+        queue.enqueue(rate("EUR"));
+        queue.enqueue(rate("CHF"));
+        release.countDown();
+
+        verify(exchangeRateRepository).upsert(argThat(exchangeRate -> "CHF".equals(exchangeRate.getCurrencyCode())));
+    }
+
+    @Test
+    void shouldFlushPendingRatesOnClose() throws InterruptedException {
+        List<String> saved = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<ExchangeRate> batch = invocation.getArgument(0);
+            batch.forEach(exchangeRate -> saved.add(exchangeRate.getCurrencyCode()));
+            return null;
+        }).when(exchangeRateRepository).upsertAll(anyList());
+        queue = new RateWriteBehindQueue(exchangeRateRepository, 100, 100, Duration.ofMillis(100), Duration.ofMillis(10));
+
+        queue.enqueue(rate("USD"));
+        queue.enqueue(rate("EUR"));
+        queue.close();
+
+        assertEquals(List.of("USD", "EUR"), saved);
+        assertEquals(0, queue.size());
+    }
+
+    private static ExchangeRate rate(String currencyCode) {
+        return new ExchangeRate(currencyCode, BigDecimal.ONE, DATE);
+    }
+}
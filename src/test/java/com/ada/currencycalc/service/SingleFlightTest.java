@@ -0,0 +1,101 @@
+package com.ada.currencycalc.service;
+
+import com.ada.currencycalc.exceptions.ExternalApiException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    void shouldRunLoaderOnceForConcurrentCallers() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Integer>> results = runConcurrently(() -> singleFlight.execute("USD", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return 42;
+        }), release);
+
+        for (Future<Integer> result : results) {
+            assertEquals(42, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void shouldShareFailureWithWaiters() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Integer>> results = runConcurrently(() -> singleFlight.execute("USD", () -> {
+            loads.incrementAndGet();
+            await(release);
+            throw new ExternalApiException("404 NOT_FOUND");
+        }), release);
+
+        for (Future<Integer> result : results) {
+            Exception exception = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ExternalApiException.class, exception.getCause());
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldLoadAgainAfterPreviousFlightCompleted() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("USD", loads::incrementAndGet);
+        singleFlight.execute("USD", loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldNotCoalesceDifferentKeys() {
+        assertEquals(1, singleFlight.execute("USD", () -> 1));
+        assertEquals(2, singleFlight.execute("EUR", () -> 2));
+    }
+
+    private List<Future<Integer>> runConcurrently(Callable<Integer> call, CountDownLatch release) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch started = new CountDownLatch(CALLERS);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                started.countDown();
+                return call.call();
+            }));
+        }
+        started.await(5, TimeUnit.SECONDS);
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(100);
+        release.countDown();
+        executor.shutdown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}